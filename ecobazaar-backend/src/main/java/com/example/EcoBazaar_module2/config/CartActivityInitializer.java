@@ -0,0 +1,35 @@
+package com.example.EcoBazaar_module2.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * carts.updated_at only tracks item changes since cart writes started bumping the
+ * revision; before that, adding items never touched the carts row, and cart_items
+ * has no timestamp of its own. Carts that still hold items but were never changed
+ * since (revision 0) therefore have no known last activity: they are stamped as
+ * active now, once (the revision bump marks them done), so the abandoned cart
+ * sweeper gives them the full idle period from this deploy.
+ */
+@Component
+public class CartActivityInitializer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Injected so the schema exists before this runs
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void stampLegacyCarts() {
+        int stamped = jdbcTemplate.update("UPDATE carts c SET updated_at = now(), revision = revision + 1 " +
+                "WHERE c.revision = 0 AND EXISTS (SELECT 1 FROM cart_items i WHERE i.cart_id = c.id)");
+        if (stamped > 0) {
+            System.out.println("✓ Stamped " + stamped + " carts with unknown last activity as active");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.EcoBazaar_module2.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cart line upserts need the unique key on cart_items (cart_id, product_id). Schema
+ * update cannot add it while older carts still hold the same product on several
+ * lines, so those lines are merged (quantities summed into the oldest) and the
+ * constraint is added here, once.
+ */
+@Component
+public class CartItemConstraintInitializer {
+
+    private static final String CONSTRAINT = "uk_cart_items_cart_product";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Injected so the schema exists before this runs
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void ensureUniqueLines() {
+        Boolean present = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)", Boolean.class, CONSTRAINT);
+        if (Boolean.TRUE.equals(present)) return;
+
+        int merged = jdbcTemplate.update(
+                "UPDATE cart_items k SET quantity = d.total FROM (" +
+                "SELECT MIN(id) AS keep_id, SUM(quantity) AS total FROM cart_items " +
+                "GROUP BY cart_id, product_id HAVING COUNT(*) > 1) d WHERE k.id = d.keep_id");
+        int removed = jdbcTemplate.update(
+                "DELETE FROM cart_items c USING cart_items k " +
+                "WHERE c.cart_id = k.cart_id AND c.product_id = k.product_id AND c.id > k.id");
+        jdbcTemplate.execute("ALTER TABLE cart_items ADD CONSTRAINT " + CONSTRAINT +
+                " UNIQUE (cart_id, product_id)");
+        System.out.println("✓ Cart items unique per product (" + merged + " lines merged, " + removed + " removed)");
+    }
+}
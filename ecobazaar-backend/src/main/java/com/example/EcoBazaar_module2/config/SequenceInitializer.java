@@ -0,0 +1,46 @@
+package com.example.EcoBazaar_module2.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tables that moved from IDENTITY to pooled sequences already hold rows, while
+ * Hibernate creates their sequences starting at 1. Before the first insert, each
+ * sequence is moved past the table's highest id (plus one allocation block).
+ */
+@Component
+public class SequenceInitializer {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    // table -> sequence
+    private static final String[][] SEQUENCES = {
+            {"orders", "orders_seq"},
+            {"order_items", "order_items_seq"},
+            {"cart_items", "cart_items_seq"}
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Injected so the schema (and the sequences) exist before this runs
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequences() {
+        for (String[] entry : SEQUENCES) {
+            String table = entry[0];
+            String sequence = entry[1];
+            Long value = jdbcTemplate.queryForObject(
+                    "SELECT setval('" + sequence + "', GREATEST(" +
+                            "(SELECT COALESCE(MAX(id), 0) FROM " + table + ") + " + ALLOCATION_SIZE + ", " +
+                            "(SELECT last_value FROM " + sequence + ")))",
+                    Long.class);
+            System.out.println("✓ Sequence " + sequence + " at " + value);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.EcoBazaar_module2.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.UnaryOperator;
+
+/**
+ * Counts the SQL statements executed on the current thread, whoever issues them
+ * (Hibernate, JdbcTemplate or plain JDBC): the DataSource is wrapped so every
+ * execute call on its statements is seen. A JDBC batch executes once, so this is
+ * the number of database round trips. Active only in the loadtest profile, see
+ * CheckoutLoadTest.
+ */
+@Component
+@Profile("loadtest")
+public class StatementCounter implements BeanPostProcessor {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    private static class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+    }
+
+    private static Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, result -> {
+            if (result instanceof CallableStatement statement) return proxy(CallableStatement.class, statement, null);
+            if (result instanceof PreparedStatement statement) return proxy(PreparedStatement.class, statement, null);
+            if (result instanceof Statement statement) return proxy(Statement.class, statement, null);
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, UnaryOperator<Object> wrapResult) {
+        return (T) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        COUNT.get()[0]++;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return wrapResult != null ? wrapResult.apply(result) : result;
+                });
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.EcoBazaar_module2.controller;
+
+import com.example.EcoBazaar_module2.dto.AuditLogDTO;
+import com.example.EcoBazaar_module2.dto.AuditLogPageDTO;
+import com.example.EcoBazaar_module2.service.AuditJournal;
+import com.example.EcoBazaar_module2.service.AuditService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/audit")
+@CrossOrigin(origins = "*")
+public class AuditController {
+
+    @Autowired
+    private AuditService auditService;
+
+    // Present only with audit.sink=journal
+    @Autowired(required = false)
+    private AuditJournal auditJournal;
+
+    /**
+     * AUDIT HISTORY
+     * GET /api/audit?from=&to=&entityType=&entityId=&cursor=&limit=50
+     *
+     * Newest first within [from, to), optionally for one entity.
+     * Pass nextCursor from the response to fetch the following page.
+     */
+    @GetMapping
+    public ResponseEntity<AuditLogPageDTO> getLogs(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(auditService.getLogs(from, to, entityType, entityId, cursor, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * AUDIT JOURNAL TAIL
+     * GET /api/audit/journal/tail?limit=100
+     *
+     * Newest records straight from the journal files, including ones not yet
+     * replayed into the database. 404 when the journal sink is disabled.
+     */
+    @GetMapping("/journal/tail")
+    public ResponseEntity<List<AuditLogDTO>> getJournalTail(@RequestParam(defaultValue = "100") int limit) {
+        if (auditJournal == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(auditJournal.tail(Math.max(1, Math.min(limit, 1000))));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * AUDIT JOURNAL STATS
+     * GET /api/audit/journal/stats
+     *
+     * Append/replay counters and average append latency of the journal sink
+     */
+    @GetMapping("/journal/stats")
+    public ResponseEntity<Map<String, Object>> getJournalStats() {
+        if (auditJournal == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(auditJournal.getStats());
+    }
+}
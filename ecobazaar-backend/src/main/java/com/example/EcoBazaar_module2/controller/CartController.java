@@ -1,8 +1,10 @@
 package com.example.EcoBazaar_module2.controller;
 
-import com.example.EcoBazaar_module2.model.Cart;
-import com.example.EcoBazaar_module2.model.CartItem;
+import com.example.EcoBazaar_module2.dto.CartBatchRequest;
+import com.example.EcoBazaar_module2.dto.CartItemViewDTO;
+import com.example.EcoBazaar_module2.dto.CartViewDTO;
 import com.example.EcoBazaar_module2.service.CartService;
+import com.example.EcoBazaar_module2.service.CartSweeperService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,20 +19,15 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private CartSweeperService cartSweeperService;
+
     /**
-     * Get user's cart
+     * Get user's cart, with precomputed totals (served from the cart read model)
      */
     @GetMapping("/{userId}")
-    public ResponseEntity<Map<String, Object>> getCart(@PathVariable Long userId) {
-        Cart cart = cartService.getUserCart(userId);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", cart.getId());
-        response.put("items", cart.getItems().stream()
-                .map(this::mapToCartItemDTO)
-                .collect(Collectors.toList()));
-
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CartViewDTO> getCart(@PathVariable Long userId) {
+        return ResponseEntity.ok(cartService.getCartView(userId));
     }
 
     /**
@@ -52,25 +49,23 @@ public class CartController {
             @RequestParam(required = false) Double maxCarbon,
             @RequestParam(required = false) String sortBy
     ) {
-        Cart cart = cartService.getUserCart(userId);
-        List<CartItem> items = cart.getItems();
+        CartViewDTO cart = cartService.getCartView(userId);
+        List<CartItemViewDTO> items = cart.getItems();
 
         // Apply filters
-        List<CartItem> filteredItems = items.stream()
+        List<CartItemViewDTO> filteredItems = items.stream()
                 .filter(item -> {
-                    var product = item.getProduct();
-
                     // Category filter
                     if (category != null && !category.isEmpty() && !category.equals("All")) {
-                        if (!product.getCategory().equals(category)) return false;
+                        if (!category.equals(item.getCategory())) return false;
                     }
 
                     // Price filter
-                    if (minPrice != null && product.getPrice() < minPrice) return false;
-                    if (maxPrice != null && product.getPrice() > maxPrice) return false;
+                    if (minPrice != null && item.getPrice() < minPrice) return false;
+                    if (maxPrice != null && item.getPrice() > maxPrice) return false;
 
                     // Carbon filter
-                    double carbon = product.getTotalCarbonFootprint();
+                    double carbon = item.getCarbonFootprint();
                     if (minCarbon != null && carbon < minCarbon) return false;
                     if (maxCarbon != null && carbon > maxCarbon) return false;
 
@@ -85,12 +80,12 @@ public class CartController {
 
         Map<String, Object> response = new HashMap<>();
         response.put("id", cart.getId());
-        response.put("items", filteredItems.stream()
-                .map(this::mapToCartItemDTO)
-                .collect(Collectors.toList()));
+        response.put("items", filteredItems);
         response.put("totalItems", filteredItems.size());
-        response.put("totalAmount", calculateTotalAmount(filteredItems));
-        response.put("totalCarbon", calculateTotalCarbon(filteredItems));
+        // Unfiltered carts reuse the precomputed totals
+        boolean unfiltered = filteredItems.size() == items.size();
+        response.put("totalAmount", unfiltered ? cart.getTotalAmount() : calculateTotalAmount(filteredItems));
+        response.put("totalCarbon", unfiltered ? cart.getTotalCarbon() : calculateTotalCarbon(filteredItems));
 
         return ResponseEntity.ok(response);
     }
@@ -106,7 +101,7 @@ public class CartController {
                     request.getOrDefault("quantity", 1).toString()
             );
 
-            CartItem item = cartService.addItemToCart(userId, productId, quantity);
+            CartItemViewDTO item = cartService.addItemToCart(userId, productId, quantity);
 
             return ResponseEntity.ok(Map.of(
                     "message", "Item added to cart",
@@ -119,6 +114,29 @@ public class CartController {
         }
     }
 
+    /**
+     * Add, update or remove many items in one transaction (all or nothing)
+     *
+     * Body: {"operations": [{"op": "ADD", "productId": 1, "quantity": 2},
+     *                       {"op": "SET", "productId": 2, "quantity": 5},
+     *                       {"op": "REMOVE", "productId": 3}]}
+     * Returns the updated cart.
+     */
+    @PostMapping("/{userId}/items/batch")
+    public ResponseEntity<?> applyBatch(
+            @PathVariable Long userId,
+            @RequestBody CartBatchRequest request
+    ) {
+        try {
+            cartService.applyOperations(userId, request.getOperations());
+            return ResponseEntity.ok(cartService.getCartView(userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
     @DeleteMapping("/{userId}/items/{itemId}")
     public ResponseEntity<?> removeItem(
             @PathVariable Long userId,
@@ -137,27 +155,36 @@ public class CartController {
         }
     }
 
-    private List<CartItem> applySorting(List<CartItem> items, String sortBy) {
-        Comparator<CartItem> comparator = null;
+    /**
+     * Abandoned cart sweeper figures: carts/items deleted and deletion rate of the
+     * last run, plus totals since startup
+     */
+    @GetMapping("/sweeper/stats")
+    public ResponseEntity<Map<String, Object>> getSweeperStats() {
+        return ResponseEntity.ok(cartSweeperService.getStats());
+    }
+
+    private List<CartItemViewDTO> applySorting(List<CartItemViewDTO> items, String sortBy) {
+        Comparator<CartItemViewDTO> comparator = null;
 
         switch (sortBy) {
             case "price_asc":
-                comparator = Comparator.comparing(item -> item.getProduct().getPrice());
+                comparator = Comparator.comparing(CartItemViewDTO::getPrice);
                 break;
             case "price_desc":
-                comparator = Comparator.comparing((CartItem item) -> item.getProduct().getPrice()).reversed();
+                comparator = Comparator.comparing(CartItemViewDTO::getPrice).reversed();
                 break;
             case "carbon_asc":
-                comparator = Comparator.comparing(item -> item.getProduct().getTotalCarbonFootprint());
+                comparator = Comparator.comparing(CartItemViewDTO::getCarbonFootprint);
                 break;
             case "carbon_desc":
-                comparator = Comparator.comparing((CartItem item) -> item.getProduct().getTotalCarbonFootprint()).reversed();
+                comparator = Comparator.comparing(CartItemViewDTO::getCarbonFootprint).reversed();
                 break;
             case "name_asc":
-                comparator = Comparator.comparing(item -> item.getProduct().getName());
+                comparator = Comparator.comparing(CartItemViewDTO::getProductName);
                 break;
             case "name_desc":
-                comparator = Comparator.comparing((CartItem item) -> item.getProduct().getName()).reversed();
+                comparator = Comparator.comparing(CartItemViewDTO::getProductName).reversed();
                 break;
             default:
                 return items;
@@ -168,33 +195,15 @@ public class CartController {
                 .collect(Collectors.toList());
     }
 
-    private double calculateTotalAmount(List<CartItem> items) {
+    private double calculateTotalAmount(List<CartItemViewDTO> items) {
         return items.stream()
-                .mapToDouble(item -> item.getProduct().getPrice() * item.getQuantity())
+                .mapToDouble(item -> item.getPrice() * item.getQuantity())
                 .sum();
     }
 
-    private double calculateTotalCarbon(List<CartItem> items) {
+    private double calculateTotalCarbon(List<CartItemViewDTO> items) {
         return items.stream()
-                .mapToDouble(item -> item.getProduct().getTotalCarbonFootprint() * item.getQuantity())
+                .mapToDouble(item -> item.getCarbonFootprint() * item.getQuantity())
                 .sum();
     }
-
-    private Map<String, Object> mapToCartItemDTO(CartItem item) {
-        Map<String, Object> dto = new HashMap<>();
-
-        var product = item.getProduct();
-
-        dto.put("id", item.getId());
-        dto.put("productId", product.getId());
-        dto.put("productName", product.getName());
-        dto.put("price", product.getPrice());
-        dto.put("quantity", item.getQuantity());
-        dto.put("imageUrl", product.getImageUrl());
-        dto.put("category", product.getCategory());
-        dto.put("carbonFootprint", product.getTotalCarbonFootprint());
-        dto.put("ecoRating", product.getEcoRating());
-
-        return dto;
-    }
-}
\ No newline at end of file
+}
@@ -1,7 +1,10 @@
 package com.example.EcoBazaar_module2.controller;
 
 import com.example.EcoBazaar_module2.dto.*;
+import com.example.EcoBazaar_module2.service.AchievementService;
 import com.example.EcoBazaar_module2.service.DashboardService;
+import com.example.EcoBazaar_module2.service.RecentActivityFeed;
+import com.example.EcoBazaar_module2.service.TopSellerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +20,15 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
 
+    @Autowired
+    private AchievementService achievementService;
+
+    @Autowired
+    private TopSellerService topSellerService;
+
+    @Autowired
+    private RecentActivityFeed recentActivityFeed;
+
     // ============= USER DASHBOARD ENDPOINTS =============
 
     /**
@@ -66,13 +78,13 @@ public class DashboardController {
      * USER ACHIEVEMENTS
      * GET /api/dashboard/user/{userId}/achievements
      *
-     * Returns user achievements with progress tracking
+     * Returns user achievements with progress tracking and unlock dates,
+     * read from the persisted unlock state and progress counters
      */
     @GetMapping("/user/{userId}/achievements")
     public ResponseEntity<List<AchievementDTO>> getUserAchievements(@PathVariable Long userId) {
         try {
-            UserDashboardDTO dashboard = dashboardService.getUserDashboard(userId);
-            return ResponseEntity.ok(dashboard.getAchievements());
+            return ResponseEntity.ok(achievementService.getAchievements(userId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -248,8 +260,8 @@ public class DashboardController {
     @GetMapping("/seller/{sellerId}/revenue-breakdown")
     public ResponseEntity<RevenueBreakdownDTO> getRevenueBreakdown(@PathVariable Long sellerId) {
         try {
-            SellerDashboardDTO dashboard = dashboardService.getSellerDashboard(sellerId);
-            return ResponseEntity.ok(dashboard.getRevenueBreakdown());
+            RevenueBreakdownDTO breakdown = dashboardService.getRevenueBreakdown(sellerId);
+            return ResponseEntity.ok(breakdown);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -314,7 +326,7 @@ public class DashboardController {
     /**
      * TOP SELLERS
      * GET /api/dashboard/admin/top-sellers
-     * Optional query param: limit (default: 10)
+     * Optional query param: limit (default: 10, at most 100)
      *
      * Returns top sellers by revenue
      */
@@ -322,10 +334,7 @@ public class DashboardController {
     public ResponseEntity<List<TopSellerDTO>> getTopSellers(
             @RequestParam(defaultValue = "10") int limit) {
         try {
-            AdminDashboardDTO dashboard = dashboardService.getAdminDashboard();
-            return ResponseEntity.ok(dashboard.getTopSellers().stream()
-                    .limit(limit)
-                    .collect(java.util.stream.Collectors.toList()));
+            return ResponseEntity.ok(topSellerService.getTopSellers(limit));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -334,7 +343,7 @@ public class DashboardController {
     /**
      * RECENT ACTIVITIES
      * GET /api/dashboard/admin/recent-activities
-     * Optional query param: limit (default: 10)
+     * Optional query param: limit (default: 10, at most 256)
      *
      * Returns recent audit activities
      */
@@ -342,10 +351,7 @@ public class DashboardController {
     public ResponseEntity<List<RecentActivityDTO>> getRecentActivities(
             @RequestParam(defaultValue = "10") int limit) {
         try {
-            AdminDashboardDTO dashboard = dashboardService.getAdminDashboard();
-            return ResponseEntity.ok(dashboard.getRecentActivities().stream()
-                    .limit(limit)
-                    .collect(java.util.stream.Collectors.toList()));
+            return ResponseEntity.ok(recentActivityFeed.latest(limit));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -0,0 +1,62 @@
+package com.example.EcoBazaar_module2.controller;
+
+import com.example.EcoBazaar_module2.dto.LeaderboardEntryDTO;
+import com.example.EcoBazaar_module2.service.LeaderboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@CrossOrigin(origins = "*")
+public class LeaderboardController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    /**
+     * GLOBAL ECO LEADERBOARD
+     * GET /api/leaderboard?limit=10
+     *
+     * Top shoppers by eco score
+     */
+    @GetMapping
+    public ResponseEntity<List<LeaderboardEntryDTO>> getGlobalLeaderboard(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboardService.getTop(null, clamp(limit)));
+    }
+
+    /**
+     * CATEGORY LEADERBOARD
+     * GET /api/leaderboard/category/{category}?limit=10
+     *
+     * Top shoppers by eco points earned in one category
+     */
+    @GetMapping("/category/{category}")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getCategoryLeaderboard(
+            @PathVariable String category,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboardService.getTop(category, clamp(limit)));
+    }
+
+    /**
+     * USER RANK
+     * GET /api/leaderboard/user/{userId}?category=
+     *
+     * Rank 0 means the user is not on that board yet
+     */
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<LeaderboardEntryDTO> getUserRank(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String category) {
+        return ResponseEntity.ok(leaderboardService.getUserRank(userId, category));
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
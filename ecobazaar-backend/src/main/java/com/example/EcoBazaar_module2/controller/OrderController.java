@@ -1,12 +1,30 @@
 package com.example.EcoBazaar_module2.controller;
 
+import com.example.EcoBazaar_module2.dto.BulkStatusRequest;
+import com.example.EcoBazaar_module2.dto.CheckoutTicketDTO;
+import com.example.EcoBazaar_module2.dto.OrderDetailDTO;
+import com.example.EcoBazaar_module2.dto.OrderSearchCriteria;
+import com.example.EcoBazaar_module2.dto.OrderSearchPageDTO;
+import com.example.EcoBazaar_module2.dto.OrderSummaryDTO;
+import com.example.EcoBazaar_module2.model.IdempotencyKey;
 import com.example.EcoBazaar_module2.model.Order;
 import com.example.EcoBazaar_module2.model.OrderStatus;
+import com.example.EcoBazaar_module2.service.CheckoutQueueService;
+import com.example.EcoBazaar_module2.service.IdempotencyService;
+import com.example.EcoBazaar_module2.service.OrderExportService;
+import com.example.EcoBazaar_module2.service.OrderSearchService;
 import com.example.EcoBazaar_module2.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -19,30 +37,58 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
-    @PostMapping("/{userId}")
-    public ResponseEntity<?> createOrder(@PathVariable Long userId, @RequestBody Map<String, String> request) {
-        try {
-            String address = request.get("address");
-            String phone = request.get("phone");
-            String paymentMethod = request.getOrDefault("paymentMethod", "Credit Card");
+    @Autowired
+    private CheckoutQueueService checkoutQueueService;
 
-            if (address == null || address.isEmpty()) {
-                return ResponseEntity.badRequest().body("Address is required");
-            }
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderExportService orderExportService;
 
-            Order order = orderService.createOrderFromCart(userId, address, phone, paymentMethod);
+    @Autowired
+    private OrderSearchService orderSearchService;
 
-            // Return a simple success response instead of the entire order
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Order created successfully");
-            response.put("orderId", order.getId());
-            response.put("orderDate", order.getCreatedAt());
-            response.put("totalAmount", order.getTotalAmount());
-            response.put("totalItems", order.getItems().size());
+    /**
+     * CREATE ORDER
+     * POST /api/orders/{userId}
+     *
+     * Optional Idempotency-Key header: a retry with the same key returns the
+     * original response (with Idempotent-Replayed: true) instead of checking out
+     * again; 409 while the first request is still running.
+     */
+    @PostMapping("/{userId}")
+    public ResponseEntity<?> createOrder(@PathVariable Long userId, @RequestBody Map<String, String> request,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        String address = request.get("address");
+        String phone = request.get("phone");
+        String paymentMethod = request.getOrDefault("paymentMethod", "Credit Card");
+
+        if (address == null || address.isEmpty()) {
+            return ResponseEntity.badRequest().body("Address is required");
+        }
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 255)) {
+            return ResponseEntity.badRequest().body("Idempotency-Key must be 1-255 characters");
+        }
+
+        String claimToken = null;
+        if (idempotencyKey != null) {
+            claimToken = idempotencyService.newToken();
+            IdempotencyKey existing = idempotencyService.claim(idempotencyKey, userId, claimToken);
+            if (existing != null) {
+                return replay(existing, userId);
+            }
+        }
 
-            return ResponseEntity.ok(response);
+        try {
+            Order order = orderService.createOrderFromCart(userId, address, phone, paymentMethod, idempotencyKey,
+                    claimToken);
+            return ResponseEntity.ok(orderCreatedResponse(order.getId(), order.getCreatedAt(),
+                    order.getTotalAmount(), order.getItems().size()));
         } catch (Exception e) {
+            if (idempotencyKey != null) {
+                idempotencyService.release(idempotencyKey, claimToken);
+            }
             // Log the full error
             e.printStackTrace();
             return ResponseEntity.badRequest().body(
@@ -52,23 +98,173 @@ public class OrderController {
         }
     }
 
+    private ResponseEntity<?> replay(IdempotencyKey existing, Long userId) {
+        if (!existing.getUserId().equals(userId)) {
+            return ResponseEntity.unprocessableEntity().body(
+                    Map.of("error", "Idempotency-Key was used for a different user"));
+        }
+        if (!IdempotencyKey.COMPLETED.equals(existing.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                    Map.of("error", "A request with this Idempotency-Key is still being processed"));
+        }
+        OrderDetailDTO order = orderService.getOrderDetail(existing.getOrderId());
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", "true")
+                .body(orderCreatedResponse(order.getId(), order.getCreatedAt(), order.getTotalAmount(),
+                        order.getItems().size()));
+    }
+
+    // Return a simple success response instead of the entire order
+    private Map<String, Object> orderCreatedResponse(Long orderId, LocalDateTime orderDate, Double totalAmount,
+                                                     int totalItems) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Order created successfully");
+        response.put("orderId", orderId);
+        response.put("orderDate", orderDate);
+        response.put("totalAmount", totalAmount);
+        response.put("totalItems", totalItems);
+        return response;
+    }
+
+    /**
+     * ASYNC CHECKOUT
+     * POST /api/orders/{userId}/async
+     *
+     * Validates and queues the checkout, returning 202 with a ticket to poll at
+     * GET /api/orders/tickets/{ticketId}. 503 when the queue is full.
+     */
+    @PostMapping("/{userId}/async")
+    public ResponseEntity<?> createOrderAsync(@PathVariable Long userId, @RequestBody Map<String, String> request) {
+        String address = request.get("address");
+        if (address == null || address.isEmpty()) {
+            return ResponseEntity.badRequest().body("Address is required");
+        }
+        try {
+            CheckoutTicketDTO ticket = checkoutQueueService.submit(userId, address, request.get("phone"),
+                    request.getOrDefault("paymentMethod", "Credit Card"));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/tickets/" + ticket.getTicketId()))
+                    .body(ticket);
+        } catch (CheckoutQueueService.QueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage(),
+                            "timestamp", LocalDateTime.now().toString())
+            );
+        }
+    }
+
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<CheckoutTicketDTO> getCheckoutTicket(@PathVariable String ticketId) {
+        try {
+            return ResponseEntity.ok(checkoutQueueService.getTicket(ticketId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * USER ORDERS
+     * GET /api/orders/user/{userId}
+     *
+     * Newest first, each with its lines.
+     */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getUserOrders(@PathVariable Long userId) {
+    public ResponseEntity<List<OrderDetailDTO>> getUserOrders(@PathVariable Long userId) {
         return ResponseEntity.ok(orderService.getUserOrders(userId));
     }
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.getOrderById(orderId));
+    public ResponseEntity<OrderDetailDTO> getOrderById(@PathVariable Long orderId) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderDetail(orderId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
+    /**
+     * ALL ORDERS
+     * GET /api/orders/all
+     *
+     * Summaries only (item count instead of lines); use GET /api/orders/{orderId} for lines.
+     */
     @GetMapping("/all")
-    public ResponseEntity<List<Order>> getAllOrders() {
+    public ResponseEntity<List<OrderSummaryDTO>> getAllOrders() {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 
+    /**
+     * ORDER SEARCH
+     * GET /api/orders/search?status=&paymentMethod=&paymentStatus=&userId=&from=&to=
+     *                        &minAmount=&maxAmount=&cursor=&limit=50&includeTotals=false
+     *
+     * Newest first. Pass nextCursor from the response to fetch the following page;
+     * includeTotals adds count and sums over all matching orders.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<OrderSearchPageDTO> searchOrders(OrderSearchCriteria criteria) {
+        try {
+            return ResponseEntity.ok(orderSearchService.search(criteria));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * ORDER EXPORT
+     * GET /api/orders/export?format=ndjson|csv&from=&to=&status=
+     *
+     * Streams every matching order (oldest first, no lines) without building the
+     * result in memory.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) OrderStatus status) {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean csv = exportFormat == OrderExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + (csv ? "csv" : "ndjson") + "\"")
+                .body(out -> orderExportService.export(from, to, status, exportFormat, out));
+    }
+
+    /**
+     * BULK STATUS UPDATE
+     * PUT /api/orders/status
+     * Body: {"actorId": 1, "status": "SHIPPED", "orderIds": [..]} or {..., "filter": {search filters}}
+     *
+     * Applies only allowed transitions; returns an outcome per order id.
+     */
+    @PutMapping("/status")
+    public ResponseEntity<?> bulkUpdateStatus(@RequestBody BulkStatusRequest request) {
+        try {
+            return ResponseEntity.ok(orderService.bulkUpdateStatus(request));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{orderId}/status")
     public ResponseEntity<?> updateStatus(@PathVariable Long orderId, @RequestParam OrderStatus status) {
-        return ResponseEntity.ok(orderService.updateOrderStatus(orderId, status));
+        try {
+            orderService.updateOrderStatus(orderId, status);
+            return ResponseEntity.ok(orderService.getOrderDetail(orderId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 }
\ No newline at end of file
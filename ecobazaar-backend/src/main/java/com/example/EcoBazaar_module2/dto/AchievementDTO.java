@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,4 +17,5 @@ public class AchievementDTO {
     private boolean unlocked;
     private Integer requiredValue;
     private Integer currentValue;
+    private LocalDateTime unlockedAt; // null when unlock state is not persisted
 }
@@ -0,0 +1,20 @@
+package com.example.EcoBazaar_module2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogDTO {
+    private Long id;
+    private Long actorId;
+    private String action;
+    private String entityType;
+    private Long entityId;
+    private String metadata;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,15 @@
+package com.example.EcoBazaar_module2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogPageDTO {
+    private List<AuditLogDTO> entries;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,19 @@
+package com.example.EcoBazaar_module2.dto;
+
+import com.example.EcoBazaar_module2.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Body of PUT /api/orders/status; exactly one of orderIds or filter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusRequest {
+    private Long actorId;
+    private OrderStatus status;
+    private List<Long> orderIds;
+    private OrderSearchCriteria filter;
+}
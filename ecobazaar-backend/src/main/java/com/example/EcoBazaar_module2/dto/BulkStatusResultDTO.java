@@ -0,0 +1,17 @@
+package com.example.EcoBazaar_module2.dto;
+
+import com.example.EcoBazaar_module2.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResultDTO {
+    private OrderStatus status;
+    private int updated;
+    private List<OrderStatusChangeDTO> results;
+}
@@ -0,0 +1,15 @@
+package com.example.EcoBazaar_module2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Body of POST /api/cart/{userId}/items/batch; operations apply in order
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchRequest {
+    private List<CartItemOperation> operations;
+}
@@ -0,0 +1,15 @@
+package com.example.EcoBazaar_module2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One line of a cart batch: ADD (increment), SET (absolute, 0 removes) or REMOVE
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemOperation {
+    private String op;
+    private Long productId;
+    private Integer quantity;
+}
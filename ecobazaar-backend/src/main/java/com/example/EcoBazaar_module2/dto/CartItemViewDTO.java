@@ -0,0 +1,20 @@
+package com.example.EcoBazaar_module2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemViewDTO {
+    private Long id;
+    private Long productId;
+    private String productName;
+    private Double price;
+    private Integer quantity;
+    private String imageUrl;
+    private String category;
+    private Double carbonFootprint;
+    private String ecoRating;
+}
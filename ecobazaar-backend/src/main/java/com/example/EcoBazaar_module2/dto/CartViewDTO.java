@@ -0,0 +1,22 @@
+package com.example.EcoBazaar_module2.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartViewDTO {
+    private Long id;
+    private Long userId;
+    @JsonIgnore
+    private long revision;
+    private List<CartItemViewDTO> items;
+    private int totalItems;
+    private double totalAmount;
+    private double totalCarbon;
+}
@@ -0,0 +1,20 @@
+package com.example.EcoBazaar_module2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutTicketDTO {
+    private String ticketId;
+    private Long userId;
+    private String status; // QUEUED, PROCESSING, COMPLETED, FAILED
+    private Long orderId;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
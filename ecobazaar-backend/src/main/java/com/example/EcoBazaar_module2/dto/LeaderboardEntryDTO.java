@@ -0,0 +1,15 @@
+package com.example.EcoBazaar_module2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryDTO {
+    private Integer rank; // 1-based, 0 when the user is not on the board
+    private Long userId;
+    private String userName;
+    private Long score;
+}
@@ -0,0 +1,28 @@
+package com.example.EcoBazaar_module2.dto;
+
+import com.example.EcoBazaar_module2.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Field names match the Order entity, so existing clients read it unchanged
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDetailDTO {
+    private Long id;
+    private Long userId;
+    private OrderStatus status;
+    private Double totalAmount;
+    private Double totalCarbonFootprint;
+    private String shippingAddress;
+    private String phoneNumber;
+    private String paymentMethod;
+    private String paymentStatus;
+    private LocalDateTime createdAt;
+    private List<OrderItemDTO> items = new ArrayList<>();
+}
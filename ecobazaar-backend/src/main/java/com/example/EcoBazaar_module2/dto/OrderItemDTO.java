@@ -0,0 +1,17 @@
+package com.example.EcoBazaar_module2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemDTO {
+    private Long id;
+    private Long productId;
+    private String productNameSnapshot;
+    private Integer quantity;
+    private Double priceSnapshot;
+    private Double carbonSnapshot;
+}
@@ -0,0 +1,33 @@
+package com.example.EcoBazaar_module2.dto;
+
+import com.example.EcoBazaar_module2.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Query parameters of GET /api/orders/search; every filter is optional
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSearchCriteria {
+    private OrderStatus status;
+    private String paymentMethod;
+    private String paymentStatus;
+    private Long userId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from; // inclusive
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;   // exclusive
+
+    private Double minAmount;
+    private Double maxAmount;
+
+    private String cursor;
+    private int limit = 50;
+    private boolean includeTotals;
+}
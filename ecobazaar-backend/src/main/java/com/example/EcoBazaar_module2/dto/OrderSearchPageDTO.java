@@ -0,0 +1,20 @@
+package com.example.EcoBazaar_module2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSearchPageDTO {
+    private List<OrderSummaryDTO> orders;
+    private String nextCursor; // null on the last page
+
+    // Over the whole filtered set (not just this page); null unless includeTotals was set
+    private Long matchCount;
+    private Double totalAmount;
+    private Double totalCarbonFootprint;
+}
@@ -0,0 +1,15 @@
+package com.example.EcoBazaar_module2.dto;
+
+import com.example.EcoBazaar_module2.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChangeDTO {
+    private Long orderId;
+    private OrderStatus previousStatus; // null when not found
+    private String outcome;             // UPDATED, UNCHANGED, NOT_ALLOWED, NOT_FOUND
+}
@@ -0,0 +1,24 @@
+package com.example.EcoBazaar_module2.dto;
+
+import com.example.EcoBazaar_module2.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row of an order list; built directly by a JPQL constructor projection
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long id;
+    private Long userId;
+    private OrderStatus status;
+    private Double totalAmount;
+    private Double totalCarbonFootprint;
+    private String paymentMethod;
+    private String paymentStatus;
+    private Integer itemCount;
+    private LocalDateTime createdAt;
+}
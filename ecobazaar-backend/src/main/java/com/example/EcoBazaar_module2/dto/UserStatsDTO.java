@@ -16,4 +16,5 @@ public class UserStatsDTO {
     private Integer totalOrders;
     private Integer totalItemsPurchased;
     private Double totalSpent;
+    private Double ecoScorePercentile; // % of shoppers with a lower eco score
 }
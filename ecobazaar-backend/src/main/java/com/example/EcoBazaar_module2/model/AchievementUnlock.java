@@ -0,0 +1,32 @@
+package com.example.EcoBazaar_module2.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "achievement_unlocks",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "achievement_id"}))
+public class AchievementUnlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Id of the rule in dashboard-rules.json, e.g. "green_shopper_5"
+    @Column(name = "achievement_id", nullable = false, length = 100)
+    private String achievementId;
+
+    @Column(nullable = false)
+    private LocalDateTime unlockedAt;
+}
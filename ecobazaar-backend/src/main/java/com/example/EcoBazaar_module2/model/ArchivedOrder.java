@@ -0,0 +1,68 @@
+package com.example.EcoBazaar_module2.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A delivered or cancelled order moved out of orders/order_items by
+ * OrderArchiveService. The order keeps its id; its lines are packed into one
+ * jsonb array of [itemId, productId, sellerId, category, productName, quantity,
+ * price, carbon] (seller and category as they were when archived).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "archived_orders",
+        indexes = {
+                @Index(name = "idx_archived_orders_user_created_at", columnList = "userId, createdAt"),
+                @Index(name = "idx_archived_orders_created_at", columnList = "createdAt, id")
+        })
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private Double totalAmount;
+
+    @Column(nullable = false)
+    private Double totalCarbonFootprint;
+
+    @Column(nullable = false)
+    private String shippingAddress;
+
+    @Column(nullable = false)
+    private String phoneNumber;
+
+    @Column(nullable = false)
+    private String paymentMethod;
+
+    @Column(nullable = false)
+    private String paymentStatus;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Column(nullable = false)
+    private Integer itemCount;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "jsonb")
+    private String lines;
+}
@@ -12,7 +12,11 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "audit_logs")
+@Table(name = "audit_logs",
+        indexes = {
+                @Index(name = "idx_audit_logs_timestamp", columnList = "timestamp"),
+                @Index(name = "idx_audit_logs_entity", columnList = "entityType, entityId, timestamp")
+        })
 public class AuditLog {
 
     @Id
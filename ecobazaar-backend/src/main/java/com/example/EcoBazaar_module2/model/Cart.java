@@ -18,7 +18,9 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "carts")
+@Table(name = "carts",
+        // Abandoned cart sweep walks idle carts in (updatedAt, id) order
+        indexes = @Index(name = "idx_carts_updated_at", columnList = "updatedAt, id"))
 public class Cart {
 
     @Id
@@ -33,6 +35,11 @@ public class Cart {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> items = new ArrayList<>();
 
+    // Bumped in SQL by every item change (which also takes the cart row lock) so the
+    // cached read model can tell whether a write-through update follows the version it holds
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long revision;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -0,0 +1,45 @@
+package com.example.EcoBazaar_module2.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt"))
+public class IdempotencyKey {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    // Client-supplied Idempotency-Key header value
+    @Id
+    @Column(name = "idem_key", length = 255)
+    private String key;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    // Random token of the request holding the claim; complete and release only act on
+    // their own claim, never on one a retry took over after this request stalled
+    @Column(length = 36)
+    private String claimToken;
+
+    // Set in the same transaction that created the order
+    private Long orderId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
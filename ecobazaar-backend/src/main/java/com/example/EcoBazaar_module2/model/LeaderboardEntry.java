@@ -0,0 +1,35 @@
+package com.example.EcoBazaar_module2.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "leaderboard_entries",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"board", "user_id"}))
+public class LeaderboardEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // "global" or "category:<name>"
+    @Column(nullable = false, length = 120)
+    private String board;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long score;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -16,11 +16,20 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "orders")
+@Table(name = "orders",
+        indexes = {
+                // Keyset order (createdAt DESC, id DESC) behind each of the usual search filters
+                @Index(name = "idx_orders_created_at", columnList = "createdAt, id"),
+                @Index(name = "idx_orders_status_created_at", columnList = "status, createdAt, id"),
+                @Index(name = "idx_orders_user_created_at", columnList = "user_id, createdAt, id"),
+                @Index(name = "idx_orders_payment_created_at", columnList = "paymentMethod, paymentStatus, createdAt, id")
+        })
 public class Order {
 
+    // Pooled sequence ids (not IDENTITY) so order and item inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -56,6 +65,11 @@ public class Order {
     private String paymentStatus;   // "PAID", "PENDING"
     // -------------------------
 
+    // Set when checkout took stock for the lines, cleared when a cancellation puts it back.
+    // Orders placed before stock was reserved keep false, so cancelling them releases nothing.
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean stockReserved;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 }
\ No newline at end of file
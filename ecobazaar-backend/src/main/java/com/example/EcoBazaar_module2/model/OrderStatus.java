@@ -1,10 +1,28 @@
 package com.example.EcoBazaar_module2.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     CONFIRMED,
     PROCESSING,
     SHIPPED,
     DELIVERED,
     CANCELLED,
-    PENDING
+    PENDING;
+
+    /** Statuses an order may be moved to from this one (used by bulk updates). */
+    public Set<OrderStatus> allowedTransitions() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(CONFIRMED, PROCESSING, SHIPPED, CANCELLED);
+            case CONFIRMED -> EnumSet.of(PROCESSING, SHIPPED, CANCELLED);
+            case PROCESSING -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(DELIVERED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return allowedTransitions().contains(target);
+    }
 }
@@ -6,13 +6,17 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+// Only changed columns are written, so saving a product (e.g. a view count bump)
+// never overwrites stock taken concurrently by checkout
 @Entity
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -85,6 +89,11 @@ public class Product {
     // Helper method to get image for display
     @Transient
     public String getImageUrl() {
+        return imageUrlOf(imageBase64);
+    }
+
+    /** Display URL for a stored image (shared with read models that only load the column). */
+    public static String imageUrlOf(String imageBase64) {
         if (imageBase64 == null || imageBase64.isEmpty()) {
             return "data:image/svg+xml,%3Csvg xmlns='http://www.w3.org/2000/svg' width='300' height='300'%3E%3Crect fill='%23f0f0f0' width='300' height='300'/%3E%3Ctext fill='%23999' x='50%25' y='50%25' text-anchor='middle' dy='.3em' font-family='Arial' font-size='18'%3ENo Image%3C/text%3E%3C/svg%3E";
         }
@@ -103,7 +112,10 @@ public class Product {
 
     @Transient
     public String getEcoRating() {
-        Double total = getTotalCarbonFootprint();
+        return ecoRatingOf(getTotalCarbonFootprint());
+    }
+
+    public static String ecoRatingOf(double total) {
         if (total < 2.0) return "A+";
         else if (total < 5.0) return "B";
         else return "C";
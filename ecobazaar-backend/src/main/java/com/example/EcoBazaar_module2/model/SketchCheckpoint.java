@@ -0,0 +1,31 @@
+package com.example.EcoBazaar_module2.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "quantile_sketch_checkpoints")
+public class SketchCheckpoint {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    // Sparse bucket counts, see QuantileSketch.toBytes()
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    @Column(nullable = false)
+    private Long valueCount;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
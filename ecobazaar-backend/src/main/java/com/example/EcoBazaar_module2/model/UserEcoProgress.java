@@ -0,0 +1,71 @@
+package com.example.EcoBazaar_module2.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Running per-user counters behind achievements and the eco score.
+ * Updated incrementally on every order, so reads never rescan the order history.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "user_eco_progress")
+public class UserEcoProgress {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer totalOrders = 0;
+
+    @Column(nullable = false)
+    private Integer totalItems = 0; // order lines
+
+    @Column(nullable = false)
+    private Integer greenPurchases = 0;
+
+    @Column(nullable = false)
+    private Integer premiumEcoPurchases = 0;
+
+    @Column(nullable = false)
+    private Double totalSpent = 0.0;
+
+    @Column(nullable = false)
+    private Double totalCarbon = 0.0;
+
+    // Order lines per product category ("" for uncategorised), used for the loyalty bonus
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "user_eco_progress_categories", joinColumns = @JoinColumn(name = "user_id"))
+    @MapKeyColumn(name = "category", length = 100)
+    @Column(name = "line_count", nullable = false)
+    private Map<String, Integer> categoryLineCounts = new HashMap<>();
+
+    // Orders already folded into the counters, so neither a redelivered event nor a rebuild
+    // that ran first can count one twice. Written with UserEcoProgressRepository.markApplied
+    // and never loaded.
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "user_eco_progress_orders", joinColumns = @JoinColumn(name = "user_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_user_eco_progress_orders",
+                    columnNames = {"user_id", "order_id"}))
+    @Column(name = "order_id", nullable = false)
+    private Set<Long> appliedOrderIds = new HashSet<>();
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    public int getRepeatedCategories() {
+        return (int) categoryLineCounts.values().stream().filter(count -> count > 1).count();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.EcoBazaar_module2.repository;
+
+import com.example.EcoBazaar_module2.model.AchievementUnlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AchievementUnlockRepository extends JpaRepository<AchievementUnlock, Long> {
+    List<AchievementUnlock> findByUserId(Long userId);
+}
@@ -0,0 +1,79 @@
+package com.example.EcoBazaar_module2.repository;
+
+import com.example.EcoBazaar_module2.dto.OrderSummaryDTO;
+import com.example.EcoBazaar_module2.model.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+// Line fields are read from the packed jsonb array, see ArchivedOrder
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    List<ArchivedOrder> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    @Query("SELECT a.totalCarbonFootprint FROM ArchivedOrder a")
+    List<Double> findAllCarbonFootprints();
+
+    @Query("SELECT a.id, a.status FROM ArchivedOrder a WHERE a.id IN :ids")
+    List<Object[]> findStatuses(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.EcoBazaar_module2.dto.OrderSummaryDTO(a.id, a.userId, a.status, " +
+            "a.totalAmount, a.totalCarbonFootprint, a.paymentMethod, a.paymentStatus, a.itemCount, a.createdAt) " +
+            "FROM ArchivedOrder a ORDER BY a.createdAt DESC, a.id DESC")
+    List<OrderSummaryDTO> findAllSummaries();
+
+    // Same as OrderItemRepository.sumEcoLinesByUserAndCategory, with the category snapshot of each line
+    @Query(value = "SELECT a.user_id, l->>3, COUNT(*), SUM(CASE WHEN (l->>7)::float8 < 2.0 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN (l->>7)::float8 < 1.0 THEN 1 ELSE 0 END) " +
+            "FROM archived_orders a CROSS JOIN LATERAL jsonb_array_elements(a.lines) l " +
+            "GROUP BY a.user_id, l->>3", nativeQuery = true)
+    List<Object[]> sumEcoLinesByUserAndCategory();
+
+    // Same as OrderRepository.sumTotalsByUser
+    @Query("SELECT a.userId, COUNT(a), SUM(a.totalAmount), SUM(a.totalCarbonFootprint) FROM ArchivedOrder a " +
+            "GROUP BY a.userId")
+    List<Object[]> sumTotalsByUser();
+
+    // [sellerId, revenue]; archived orders are all older than the revenue rings' window
+    @Query(value = "SELECT (l->>2)::bigint, SUM((l->>6)::float8 * (l->>5)::int) " +
+            "FROM archived_orders a CROSS JOIN LATERAL jsonb_array_elements(a.lines) l " +
+            "WHERE l->>2 IS NOT NULL GROUP BY 1", nativeQuery = true)
+    List<Object[]> sumRevenueBySeller();
+
+    // [sellerId, units sold, revenue]
+    @Query(value = "SELECT (l->>2)::bigint, SUM((l->>5)::int), SUM((l->>6)::float8 * (l->>5)::int) " +
+            "FROM archived_orders a CROSS JOIN LATERAL jsonb_array_elements(a.lines) l " +
+            "WHERE l->>2 IS NOT NULL GROUP BY 1", nativeQuery = true)
+    List<Object[]> sumSalesBySeller();
+
+    // Single row: [order count, summed amount, summed carbon]
+    @Query("SELECT COUNT(a), COALESCE(SUM(a.totalAmount), 0.0), COALESCE(SUM(a.totalCarbonFootprint), 0.0) " +
+            "FROM ArchivedOrder a")
+    List<Object[]> sumTotals();
+
+    // [productId, name, category, units sold, revenue, line count] of one seller's archived lines
+    @Query(value = "SELECT (l->>1)::bigint, MAX(l->>4), MAX(l->>3), SUM((l->>5)::int), " +
+            "SUM((l->>6)::float8 * (l->>5)::int), COUNT(*) " +
+            "FROM archived_orders a CROSS JOIN LATERAL jsonb_array_elements(a.lines) l " +
+            "WHERE (l->>2)::bigint = :sellerId GROUP BY 1", nativeQuery = true)
+    List<Object[]> sumSalesByProductForSeller(@Param("sellerId") Long sellerId);
+
+    // Same as OrderRepository.findRecentForSeller
+    @Query(value = "SELECT a.id, a.created_at, a.item_count, a.total_amount, a.total_carbon_footprint, a.status " +
+            "FROM archived_orders a WHERE EXISTS (SELECT 1 FROM jsonb_array_elements(a.lines) l " +
+            "WHERE (l->>2)::bigint = :sellerId) ORDER BY a.created_at DESC, a.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findRecentForSeller(@Param("sellerId") Long sellerId, @Param("limit") int limit);
+
+    // Same as OrderItemRepository.sumCarbonImpactByCategory, with the category snapshot of each line
+    @Query(value = "SELECT l->>3, SUM(CASE WHEN (l->>7)::float8 > 5.0 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN (l->>7)::float8 < 2.0 THEN 1 ELSE 0 END), SUM((l->>7)::float8 * (l->>5)::int) " +
+            "FROM archived_orders a CROSS JOIN LATERAL jsonb_array_elements(a.lines) l GROUP BY 1",
+            nativeQuery = true)
+    List<Object[]> sumCarbonImpactByCategory();
+}
@@ -1,12 +1,51 @@
 package com.example.EcoBazaar_module2.repository;
 
+import com.example.EcoBazaar_module2.dto.AuditLogDTO;
 import com.example.EcoBazaar_module2.model.AuditLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-    List<AuditLog> findByEntityTypeAndEntityId(String entityType, Long entityId);
+
+    // Newest entries first, served by idx_audit_logs_timestamp
+    @Query("SELECT a FROM AuditLog a JOIN FETCH a.actor ORDER BY a.timestamp DESC")
+    List<AuditLog> findLatestWithActor(Pageable pageable);
+
+    /**
+     * Keyset page over a time range, newest first: entries strictly before the
+     * (cursorTs, cursorId) position and at or after :from
+     */
+    @Query("SELECT new com.example.EcoBazaar_module2.dto.AuditLogDTO(" +
+            "a.id, a.actor.id, a.action, a.entityType, a.entityId, a.metadata, a.timestamp) " +
+            "FROM AuditLog a WHERE a.timestamp >= :from AND " +
+            "(a.timestamp < :cursorTs OR (a.timestamp = :cursorTs AND a.id < :cursorId)) " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLogDTO> findPage(@Param("from") LocalDateTime from,
+                               @Param("cursorTs") LocalDateTime cursorTs,
+                               @Param("cursorId") Long cursorId,
+                               Pageable pageable);
+
+    // Same keyset page for one entity, served by idx_audit_logs_entity
+    @Query("SELECT new com.example.EcoBazaar_module2.dto.AuditLogDTO(" +
+            "a.id, a.actor.id, a.action, a.entityType, a.entityId, a.metadata, a.timestamp) " +
+            "FROM AuditLog a WHERE a.entityType = :entityType AND a.entityId = :entityId " +
+            "AND a.timestamp >= :from AND " +
+            "(a.timestamp < :cursorTs OR (a.timestamp = :cursorTs AND a.id < :cursorId)) " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLogDTO> findEntityPage(@Param("entityType") String entityType,
+                                     @Param("entityId") Long entityId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("cursorTs") LocalDateTime cursorTs,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable pageable);
+
+    @Query("SELECT MIN(a.timestamp) FROM AuditLog a")
+    LocalDateTime findOldestTimestamp();
 }
@@ -2,11 +2,34 @@ package com.example.EcoBazaar_module2.repository;
 
 import com.example.EcoBazaar_module2.model.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUserId(Long userId);
+
+    // Creates the user's cart unless one exists (carts.user_id is unique); concurrent first requests both succeed
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO carts (user_id, revision, created_at, updated_at) " +
+            "VALUES (:userId, 0, now(), now()) ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+
+    /**
+     * The whole cart read model in one statement: [cartId, revision, itemId, productId,
+     * name, price, quantity, imageBase64, category, carbon]. An empty cart yields one row
+     * with null item columns; no row means the user has no cart yet.
+     */
+    @Query("SELECT c.id, c.revision, i.id, p.id, p.name, p.price, i.quantity, p.imageBase64, p.category, " +
+            "COALESCE(cd.manufacturing + cd.transportation + cd.packaging + cd.usage + cd.disposal, 0.0) " +
+            "FROM Cart c LEFT JOIN c.items i LEFT JOIN i.product p LEFT JOIN p.carbonData cd " +
+            "WHERE c.user.id = :userId ORDER BY i.id")
+    List<Object[]> findViewRows(@Param("userId") Long userId);
 }
@@ -0,0 +1,45 @@
+package com.example.EcoBazaar_module2.repository;
+
+import com.example.EcoBazaar_module2.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Claims a key for this request under its token; returns 1 if claimed. An existing
+     * key is only taken over once it has expired, or if its request stalled while in progress.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (idem_key, user_id, status, claim_token, order_id, created_at, " +
+            "expires_at) VALUES (:key, :userId, 'IN_PROGRESS', :token, NULL, now(), " +
+            "now() + make_interval(hours => :ttlHours)) " +
+            "ON CONFLICT (idem_key) DO UPDATE SET user_id = EXCLUDED.user_id, status = 'IN_PROGRESS', " +
+            "claim_token = EXCLUDED.claim_token, order_id = NULL, created_at = now(), expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at < now() OR (idempotency_keys.status = 'IN_PROGRESS' " +
+            "AND idempotency_keys.created_at < now() - make_interval(secs => :stallSeconds))",
+            nativeQuery = true)
+    int claim(@Param("key") String key, @Param("userId") Long userId, @Param("token") String token,
+              @Param("ttlHours") int ttlHours, @Param("stallSeconds") int stallSeconds);
+
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = 'COMPLETED', k.orderId = :orderId " +
+            "WHERE k.key = :key AND k.claimToken = :token AND k.status = 'IN_PROGRESS'")
+    int complete(@Param("key") String key, @Param("token") String token, @Param("orderId") Long orderId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.key = :key AND k.claimToken = :token AND k.status = 'IN_PROGRESS'")
+    int release(@Param("key") String key, @Param("token") String token);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM idempotency_keys WHERE expires_at < now()", nativeQuery = true)
+    int deleteExpired();
+}
@@ -0,0 +1,32 @@
+package com.example.EcoBazaar_module2.repository;
+
+import com.example.EcoBazaar_module2.model.LeaderboardEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LeaderboardEntryRepository extends JpaRepository<LeaderboardEntry, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO leaderboard_entries (board, user_id, score, updated_at) " +
+            "VALUES (:board, :userId, :score, now()) " +
+            "ON CONFLICT (board, user_id) DO UPDATE SET score = EXCLUDED.score, updated_at = now()",
+            nativeQuery = true)
+    void upsertScore(@Param("board") String board, @Param("userId") Long userId, @Param("score") long score);
+
+    @Modifying
+    @Query(value = "INSERT INTO leaderboard_entries (board, user_id, score, updated_at) " +
+            "VALUES (:board, :userId, :delta, now()) " +
+            "ON CONFLICT (board, user_id) DO UPDATE SET score = leaderboard_entries.score + EXCLUDED.score, updated_at = now()",
+            nativeQuery = true)
+    void addToScore(@Param("board") String board, @Param("userId") Long userId, @Param("delta") long delta);
+
+    // Users with hot or archived orders but no row on the global board
+    @Query(value = "SELECT COUNT(*) FROM (SELECT user_id FROM orders UNION SELECT user_id FROM archived_orders) u " +
+            "WHERE NOT EXISTS (SELECT 1 FROM leaderboard_entries e WHERE e.board = 'global' AND e.user_id = u.user_id)",
+            nativeQuery = true)
+    long countUsersMissingFromGlobal();
+}
@@ -2,11 +2,59 @@ package com.example.EcoBazaar_module2.repository;
 
 import com.example.EcoBazaar_module2.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    // Leaves out lines of orders whose OrderPlaced event is still in the outbox: in-memory
+    // aggregates warmed from these queries get those orders when the event is delivered
+    String ORDER_DELIVERED = "NOT EXISTS (SELECT 1 FROM OutboxEvent e WHERE e.eventType = 'OrderPlaced' " +
+            "AND e.aggregateType = 'ORDER' AND e.aggregateId = i.order.id AND e.status = 'PENDING')";
+
     List<OrderItem> findByOrderId(Long orderId);
+
+    // [userId, category, lines, green lines, premium lines] over delivered orders
+    @Query("SELECT i.order.user.id, i.product.category, COUNT(i), " +
+            "SUM(CASE WHEN i.carbonSnapshot < 2.0 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN i.carbonSnapshot < 1.0 THEN 1 ELSE 0 END) " +
+            "FROM OrderItem i WHERE " + ORDER_DELIVERED + " GROUP BY i.order.user.id, i.product.category")
+    List<Object[]> sumEcoLinesByUserAndCategory();
+
+    // [sellerId, revenue] for delivered order lines placed before the given time
+    @Query("SELECT i.product.seller.id, SUM(i.priceSnapshot * i.quantity) FROM OrderItem i " +
+            "WHERE i.order.createdAt < :before AND " + ORDER_DELIVERED + " GROUP BY i.product.seller.id")
+    List<Object[]> sumRevenueBySellerBefore(@Param("before") LocalDateTime before);
+
+    // [sellerId, order createdAt, revenue] for delivered order lines placed since the given time
+    @Query("SELECT i.product.seller.id, i.order.createdAt, i.priceSnapshot * i.quantity FROM OrderItem i " +
+            "WHERE i.order.createdAt >= :since AND " + ORDER_DELIVERED)
+    List<Object[]> findSellerRevenueSince(@Param("since") LocalDateTime since);
+
+    // [sellerId, units sold, revenue] over delivered orders
+    @Query("SELECT i.product.seller.id, SUM(i.quantity), SUM(i.priceSnapshot * i.quantity) FROM OrderItem i " +
+            "WHERE " + ORDER_DELIVERED + " GROUP BY i.product.seller.id")
+    List<Object[]> sumSalesBySeller();
+
+    // [productId, units sold, revenue, line count] of one seller's products
+    @Query("SELECT i.product.id, SUM(i.quantity), SUM(i.priceSnapshot * i.quantity), COUNT(i) FROM OrderItem i " +
+            "WHERE i.product.seller.id = :sellerId GROUP BY i.product.id")
+    List<Object[]> sumSalesByProductForSeller(@Param("sellerId") Long sellerId);
+
+    // [category, lines above 5 kg, lines below 2 kg, carbon] over all order lines
+    @Query("SELECT i.product.category, SUM(CASE WHEN i.carbonSnapshot > 5.0 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN i.carbonSnapshot < 2.0 THEN 1 ELSE 0 END), SUM(i.carbonSnapshot * i.quantity) " +
+            "FROM OrderItem i GROUP BY i.product.category")
+    List<Object[]> sumCarbonImpactByCategory();
+
+    // [productId, quantity] summed over those of the given orders that still hold reserved stock
+    @Query("SELECT i.product.id, SUM(i.quantity) FROM OrderItem i WHERE i.order.id IN :orderIds " +
+            "AND i.order.stockReserved = true GROUP BY i.product.id")
+    List<Object[]> sumReservedQuantitiesByProduct(@Param("orderIds") Collection<Long> orderIds);
 }
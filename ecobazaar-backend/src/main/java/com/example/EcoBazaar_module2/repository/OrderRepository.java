@@ -1,12 +1,76 @@
 package com.example.EcoBazaar_module2.repository;
 
+import com.example.EcoBazaar_module2.dto.OrderSummaryDTO;
 import com.example.EcoBazaar_module2.model.Order;
+import com.example.EcoBazaar_module2.model.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
+
+    @Query("SELECT o.totalCarbonFootprint FROM Order o")
+    List<Double> findAllCarbonFootprints();
+
+    // Single row: [order count, summed amount, summed carbon]
+    @Query("SELECT COUNT(o), COALESCE(SUM(o.totalAmount), 0.0), COALESCE(SUM(o.totalCarbonFootprint), 0.0) " +
+            "FROM Order o")
+    List<Object[]> sumTotals();
+
+    // [userId, order count, amount, carbon] over orders whose OrderPlaced event was delivered
+    @Query("SELECT o.user.id, COUNT(o), SUM(o.totalAmount), SUM(o.totalCarbonFootprint) FROM Order o " +
+            "WHERE NOT EXISTS (SELECT 1 FROM OutboxEvent e WHERE e.eventType = 'OrderPlaced' " +
+            "AND e.aggregateType = 'ORDER' AND e.aggregateId = o.id AND e.status = 'PENDING') GROUP BY o.user.id")
+    List<Object[]> sumTotalsByUser();
+
+    // [id, createdAt, item count, amount, carbon, status] of the newest orders holding a line of the seller
+    @Query("SELECT o.id, o.createdAt, SIZE(o.items), o.totalAmount, o.totalCarbonFootprint, o.status FROM Order o " +
+            "WHERE EXISTS (SELECT i.id FROM OrderItem i WHERE i.order = o AND i.product.seller.id = :sellerId) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Object[]> findRecentForSeller(@Param("sellerId") Long sellerId, Pageable pageable);
+
+    String DETAIL_COLUMNS = "SELECT o.id, o.user.id, o.status, o.totalAmount, o.totalCarbonFootprint, " +
+            "o.shippingAddress, o.phoneNumber, o.paymentMethod, o.paymentStatus, o.createdAt, " +
+            "i.id, i.product.id, i.productNameSnapshot, i.quantity, i.priceSnapshot, i.carbonSnapshot " +
+            "FROM Order o LEFT JOIN o.items i ";
+
+    // Order + line columns, one row per line (see OrderService.toDetails); no entities are loaded
+    @Query(DETAIL_COLUMNS + "WHERE o.id = :orderId ORDER BY i.id")
+    List<Object[]> findDetailRows(@Param("orderId") Long orderId);
+
+    @Query(DETAIL_COLUMNS + "WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC, i.id")
+    List<Object[]> findDetailRowsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.example.EcoBazaar_module2.dto.OrderSummaryDTO(o.id, o.user.id, o.status, " +
+            "o.totalAmount, o.totalCarbonFootprint, o.paymentMethod, o.paymentStatus, SIZE(o.items), o.createdAt) " +
+            "FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummaryDTO> findAllSummaries();
+
+    // Row lock so concurrent status changes of one order apply one after another
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findForUpdate(@Param("id") Long id);
+
+    // [id, status] with row locks, taken in id order so concurrent bulk updates cannot deadlock
+    @Query(value = "SELECT id, status FROM orders WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockStatuses(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.stockReserved = false WHERE o.id IN :ids AND o.stockReserved = true")
+    int clearStockReserved(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,49 @@
+package com.example.EcoBazaar_module2.repository;
+
+import com.example.EcoBazaar_module2.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest due events. SKIP LOCKED lets several dispatchers (or nodes)
+     * share the table without ever delivering the same event concurrently.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE status = 'PENDING' AND next_attempt_at <= now() " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockDue(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM outbox_events WHERE id = :id AND status = 'PENDING' FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<OutboxEvent> lockPending(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSED', e.processedAt = :now WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.status = :status, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.lastError = :error WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("status") String status,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query(value = "DELETE FROM outbox_events WHERE id IN (SELECT id FROM outbox_events " +
+            "WHERE status = 'PROCESSED' AND processed_at < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // Those of the given orders whose OrderPlaced event has not been delivered yet
+    @Query("SELECT e.aggregateId FROM OutboxEvent e WHERE e.eventType = 'OrderPlaced' " +
+            "AND e.aggregateType = 'ORDER' AND e.status = 'PENDING' AND e.aggregateId IN :orderIds")
+    List<Long> findUndeliveredOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -4,10 +4,12 @@ import com.example.EcoBazaar_module2.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -66,4 +68,27 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             @Param("featured") Boolean featured,
             Pageable pageable
     );
-}
\ No newline at end of file
+
+    // [sellerId, product count, summed carbon footprint]; products without carbon data count as 0
+    @Query("SELECT p.seller.id, COUNT(p), " +
+            "SUM(COALESCE(cd.manufacturing + cd.transportation + cd.packaging + cd.usage + cd.disposal, 0.0)) " +
+            "FROM Product p LEFT JOIN p.carbonData cd GROUP BY p.seller.id")
+    List<Object[]> sumCarbonBySeller();
+
+    // Cart line data without loading entities: [id, name, price, imageBase64, category, carbon, active, verified]
+    @Query("SELECT p.id, p.name, p.price, p.imageBase64, p.category, " +
+            "COALESCE(cd.manufacturing + cd.transportation + cd.packaging + cd.usage + cd.disposal, 0.0), " +
+            "p.active, p.verified FROM Product p LEFT JOIN p.carbonData cd WHERE p.id IN :ids")
+    List<Object[]> findCartLineRows(@Param("ids") Collection<Long> ids);
+
+    // Takes stock only if enough is left; 0 rows updated means insufficient stock
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :qty, p.soldCount = p.soldCount + :qty " +
+            "WHERE p.id = :id AND p.quantity >= :qty")
+    int reserveStock(@Param("id") Long id, @Param("qty") int qty);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :qty, p.soldCount = p.soldCount - :qty " +
+            "WHERE p.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("qty") int qty);
+}
@@ -0,0 +1,9 @@
+package com.example.EcoBazaar_module2.repository;
+
+import com.example.EcoBazaar_module2.model.SketchCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SketchCheckpointRepository extends JpaRepository<SketchCheckpoint, String> {
+}
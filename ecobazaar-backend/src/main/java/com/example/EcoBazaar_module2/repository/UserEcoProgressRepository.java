@@ -0,0 +1,34 @@
+package com.example.EcoBazaar_module2.repository;
+
+import com.example.EcoBazaar_module2.model.UserEcoProgress;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserEcoProgressRepository extends JpaRepository<UserEcoProgress, Long> {
+
+    // Row lock so concurrent orders of the same user apply their deltas one after another
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM UserEcoProgress p WHERE p.userId = :userId")
+    Optional<UserEcoProgress> findForUpdate(@Param("userId") Long userId);
+
+    // Creates an empty row unless one exists; returns 1 if this call created it
+    @Modifying
+    @Query(value = "INSERT INTO user_eco_progress (user_id, total_orders, total_items, green_purchases, " +
+            "premium_eco_purchases, total_spent, total_carbon, updated_at) " +
+            "VALUES (:userId, 0, 0, 0, 0, 0, 0, now()) ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+
+    // Records that an order was folded into the user's counters; returns 1 only the first time
+    @Modifying
+    @Query(value = "INSERT INTO user_eco_progress_orders (user_id, order_id) VALUES (:userId, :orderId) " +
+            "ON CONFLICT (user_id, order_id) DO NOTHING", nativeQuery = true)
+    int markApplied(@Param("userId") Long userId, @Param("orderId") Long orderId);
+}
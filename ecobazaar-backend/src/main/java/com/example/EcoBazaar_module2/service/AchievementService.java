@@ -0,0 +1,172 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.AchievementDTO;
+import com.example.EcoBazaar_module2.model.*;
+import com.example.EcoBazaar_module2.repository.AchievementUnlockRepository;
+import com.example.EcoBazaar_module2.repository.OutboxEventRepository;
+import com.example.EcoBazaar_module2.repository.UserEcoProgressRepository;
+import com.example.EcoBazaar_module2.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Persisted achievement state. Progress counters are updated incrementally when an
+ * order is placed and only the rules whose metric moved are re-checked; reads
+ * combine the stored counters with the stored unlock rows. Every order is folded in
+ * exactly once: its id is recorded with the counters, and orders whose OrderPlaced
+ * event is still waiting in the outbox are left to that event.
+ */
+@Service
+public class AchievementService {
+
+    @Autowired
+    private UserEcoProgressRepository progressRepository;
+
+    @Autowired
+    private AchievementUnlockRepository unlockRepository;
+
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private DashboardRuleEngine dashboardRuleEngine;
+
+    @Autowired
+    private EcoPercentileService ecoPercentileService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    /**
+     * Applies a freshly placed order to the user's counters and records any
+     * achievements it unlocks. Runs in the outbox delivery of the OrderPlaced event.
+     */
+    @Transactional
+    public void recordOrder(Order order) {
+        Long userId = order.getUser().getId();
+        boolean created = progressRepository.insertIfAbsent(userId) == 1;
+        UserEcoProgress progress = progressRepository.findForUpdate(userId).orElseThrow();
+
+        if (created) {
+            // First time we see this user: fold in the delivered history, then this order
+            rebuildFromHistory(progress);
+        }
+        if (progressRepository.markApplied(userId, order.getId()) == 0) {
+            return; // already counted
+        }
+
+        MetricVector before = toMetricVector(progress);
+        applyOrder(progress, order);
+        progressRepository.save(progress);
+
+        MetricVector after = toMetricVector(progress);
+        unlock(userId, before, after);
+        int ecoScore = (int) after.get(DashboardMetric.ECO_SCORE);
+        ecoPercentileService.recordEcoScore((int) before.get(DashboardMetric.ECO_SCORE), ecoScore);
+        leaderboardService.updateEcoScore(order.getUser(), ecoScore);
+    }
+
+    @Transactional
+    public List<AchievementDTO> getAchievements(Long userId) {
+        UserEcoProgress progress = progressRepository.findById(userId).orElse(null);
+        if (progress == null) {
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found");
+            }
+            boolean created = progressRepository.insertIfAbsent(userId) == 1;
+            progress = progressRepository.findForUpdate(userId).orElseThrow();
+            if (created) {
+                rebuildFromHistory(progress);
+            }
+        }
+
+        Map<String, LocalDateTime> unlockedAt = new HashMap<>();
+        for (AchievementUnlock unlock : unlockRepository.findByUserId(userId)) {
+            unlockedAt.put(unlock.getAchievementId(), unlock.getUnlockedAt());
+        }
+
+        return dashboardRuleEngine.achievements(toMetricVector(progress), unlockedAt);
+    }
+
+    /**
+     * Builds the counters from the order history once (for users who ordered before
+     * progress tracking existed) and stores the achievements already earned. Orders
+     * whose OrderPlaced event is still pending are skipped; recordOrder applies them
+     * when the event is delivered.
+     */
+    private void rebuildFromHistory(UserEcoProgress progress) {
+        List<Order> orders = orderHistoryService.findByUserId(progress.getUserId());
+        Set<Long> undelivered = orders.isEmpty() ? Set.of() : new HashSet<>(
+                outboxEventRepository.findUndeliveredOrderIds(orders.stream().map(Order::getId).toList()));
+        for (Order order : orders) {
+            if (!undelivered.contains(order.getId())
+                    && progressRepository.markApplied(progress.getUserId(), order.getId()) == 1) {
+                applyOrder(progress, order);
+            }
+        }
+        progressRepository.save(progress);
+
+        unlock(progress.getUserId(), null, toMetricVector(progress));
+        int ecoScore = EcoScore.of(progress);
+        ecoPercentileService.recordEcoScore(null, ecoScore);
+        leaderboardService.updateEcoScore(userRepository.getReferenceById(progress.getUserId()), ecoScore);
+    }
+
+    private void unlock(Long userId, MetricVector before, MetricVector after) {
+        Set<String> alreadyUnlocked = new HashSet<>();
+        for (AchievementUnlock unlock : unlockRepository.findByUserId(userId)) {
+            alreadyUnlocked.add(unlock.getAchievementId());
+        }
+
+        List<String> newlyUnlocked = dashboardRuleEngine.newlyUnlocked(before, after, alreadyUnlocked);
+        if (newlyUnlocked.isEmpty()) return;
+
+        User user = userRepository.getReferenceById(userId);
+        LocalDateTime now = LocalDateTime.now();
+        List<AchievementUnlock> rows = new ArrayList<>();
+        for (String achievementId : newlyUnlocked) {
+            rows.add(new AchievementUnlock(null, user, achievementId, now));
+        }
+        unlockRepository.saveAll(rows);
+    }
+
+    private void applyOrder(UserEcoProgress progress, Order order) {
+        progress.setTotalOrders(progress.getTotalOrders() + 1);
+        progress.setTotalSpent(progress.getTotalSpent() + order.getTotalAmount());
+        progress.setTotalCarbon(progress.getTotalCarbon() + order.getTotalCarbonFootprint());
+
+        for (OrderItem item : order.getItems()) {
+            double carbon = item.getCarbonSnapshot();
+            progress.setTotalItems(progress.getTotalItems() + 1);
+            if (carbon < OrderHistoryMetrics.GREEN_CARBON_THRESHOLD) {
+                progress.setGreenPurchases(progress.getGreenPurchases() + 1);
+            }
+            if (carbon < OrderHistoryMetrics.PREMIUM_ECO_CARBON_THRESHOLD) {
+                progress.setPremiumEcoPurchases(progress.getPremiumEcoPurchases() + 1);
+            }
+            String category = item.getProduct().getCategory();
+            progress.getCategoryLineCounts().merge(category != null ? category : "", 1, Integer::sum);
+        }
+    }
+
+    private MetricVector toMetricVector(UserEcoProgress progress) {
+        double carbonSaved = EcoScore.carbonSaved(progress.getTotalOrders(), progress.getTotalCarbon());
+        return new MetricVector()
+                .set(DashboardMetric.TOTAL_ORDERS, progress.getTotalOrders())
+                .set(DashboardMetric.TOTAL_ITEMS, progress.getTotalItems())
+                .set(DashboardMetric.GREEN_PURCHASES, progress.getGreenPurchases())
+                .set(DashboardMetric.CARBON_SAVED, Math.round(carbonSaved * 100.0) / 100.0)
+                .set(DashboardMetric.ECO_SCORE, EcoScore.of(progress))
+                .set(DashboardMetric.TOTAL_SPENT, Math.round(progress.getTotalSpent() * 100.0) / 100.0);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.repository.AuditLogRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Retention rollover for audit_logs. The table is treated as a series of monthly
+ * slices: every month older than the retention period is streamed to a gzipped
+ * NDJSON file (audit_logs_YYYY_MM.ndjson.gz) and then deleted in chunks, so the
+ * live table only ever holds the retained months. The month is read through a
+ * cursor (fetch size in a read-only transaction, as in OrderExportService), so only
+ * fetch-size rows are held in memory at a time.
+ */
+@Service
+public class AuditArchiveService {
+
+    private static final String SELECT_MONTH = "SELECT id, actor_id, action, entity_type, entity_id, metadata, timestamp " +
+            "FROM audit_logs WHERE timestamp >= ? AND timestamp < ? ORDER BY timestamp, id";
+
+    private static final String DELETE_CHUNK = "DELETE FROM audit_logs WHERE id IN " +
+            "(SELECT id FROM audit_logs WHERE timestamp >= ? AND timestamp < ? LIMIT ?)";
+
+    private static final int DELETE_CHUNK_SIZE = 5000;
+
+    @Value("${audit.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${audit.archive.dir:audit-archive}")
+    private String archiveDir;
+
+    @Value("${audit.archive.fetch-size:1000}")
+    private int fetchSize;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate cursorTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        // PostgreSQL only uses a cursor for the fetch size when autocommit is off
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${audit.archive.cron:0 30 3 * * *}")
+    public void rollover() {
+        LocalDateTime oldest = auditLogRepository.findOldestTimestamp();
+        if (oldest == null) return;
+
+        YearMonth firstRetained = YearMonth.now().minusMonths(retentionMonths);
+        for (YearMonth month = YearMonth.from(oldest); month.isBefore(firstRetained); month = month.plusMonths(1)) {
+            try {
+                archiveMonth(month);
+            } catch (Exception e) {
+                // Rows stay in the table and the month is retried on the next run
+                System.err.println("Audit archive of " + month + " failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void archiveMonth(YearMonth month) throws IOException {
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        Path dir = Paths.get(archiveDir);
+        Files.createDirectories(dir);
+        String baseName = String.format("audit_logs_%d_%02d", month.getYear(), month.getMonthValue());
+        Path target = dir.resolve(baseName + ".ndjson.gz");
+        if (Files.exists(target)) {
+            // An earlier run archived this month but did not finish deleting it
+            target = dir.resolve(baseName + "_" + System.currentTimeMillis() + ".ndjson.gz");
+        }
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+
+        long[] rows = {0};
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+            readOnlyTransaction.executeWithoutResult(tx -> cursorTemplate.query(SELECT_MONTH, rs -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("id", rs.getLong("id"));
+                row.put("actorId", rs.getLong("actor_id"));
+                row.put("action", rs.getString("action"));
+                row.put("entityType", rs.getString("entity_type"));
+                row.put("entityId", rs.getLong("entity_id"));
+                row.put("metadata", rs.getString("metadata"));
+                row.put("timestamp", rs.getTimestamp("timestamp").toLocalDateTime().toString());
+                try {
+                    out.write(objectMapper.writeValueAsBytes(row));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, from, to));
+        }
+
+        if (rows[0] == 0) {
+            Files.delete(tmp);
+            return;
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+
+        long deleted = 0;
+        int chunk;
+        do {
+            chunk = jdbcTemplate.update(DELETE_CHUNK, from, to, DELETE_CHUNK_SIZE);
+            deleted += chunk;
+        } while (chunk > 0);
+
+        System.out.println("✓ Archived " + rows[0] + " audit entries for " + month + " to " + target
+                + " (" + deleted + " deleted)");
+    }
+}
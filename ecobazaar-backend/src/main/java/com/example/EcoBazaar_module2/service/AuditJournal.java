@@ -0,0 +1,404 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.AuditLogDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Optional audit sink (audit.sink=journal) that appends compact binary records to
+ * memory-mapped segment files instead of queueing database inserts, so audit
+ * writes never take a connection on the request path. A background replayer
+ * copies committed records into audit_logs in JDBC batches, tracks its position
+ * in a checkpoint file and deletes segments once they are fully replayed.
+ *
+ * Record layout: int bodyLength | body | int crc32(body), where body is
+ * long timestampMicros | long actorId | long entityId | action | entityType | metadata
+ * (strings as length-prefixed UTF-8, metadata length -1 for null). A zero length
+ * marks the end of the written part of a segment.
+ *
+ * Fsync policy: ALWAYS forces each record, INTERVAL forces dirty pages every
+ * audit.journal.fsync-interval-ms, NONE leaves it to the OS (and segment rollover).
+ */
+@Component
+@ConditionalOnProperty(name = "audit.sink", havingValue = "journal")
+public class AuditJournal {
+
+    public enum FsyncPolicy { ALWAYS, INTERVAL, NONE }
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT = "replay.checkpoint";
+    private static final int FIXED_BODY_BYTES = 8 + 8 + 8 + 2 + 2 + 4;
+
+    @Value("${audit.journal.dir:audit-journal}")
+    private String journalDir;
+
+    @Value("${audit.journal.segment-bytes:16777216}")
+    private int segmentBytes;
+
+    @Value("${audit.journal.fsync:INTERVAL}")
+    private FsyncPolicy fsyncPolicy;
+
+    @Value("${audit.journal.replay-batch-size:500}")
+    private int replayBatchSize;
+
+    @Autowired
+    private AuditWriter auditWriter;
+
+    private Path dir;
+
+    // Writer state, guarded by writeLock
+    private final Object writeLock = new Object();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private volatile long currentSegment;
+    private volatile int writePosition;
+    private boolean dirty;
+
+    // Replayer state, guarded by replay()'s monitor
+    private long replaySegment;
+    private int replayOffset;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong appendNanos = new AtomicLong();
+
+    @PostConstruct
+    public void open() throws IOException {
+        dir = Paths.get(journalDir);
+        Files.createDirectories(dir);
+
+        List<Long> segments = listSegments();
+        long last = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        openSegment(last);
+        writePosition = scanEnd(buffer.duplicate(), segmentBytes);
+
+        Path checkpoint = dir.resolve(CHECKPOINT);
+        if (Files.exists(checkpoint)) {
+            String[] parts = Files.readString(checkpoint).trim().split(" ");
+            replaySegment = Long.parseLong(parts[0]);
+            replayOffset = Integer.parseInt(parts[1]);
+        } else {
+            replaySegment = segments.isEmpty() ? last : segments.get(0);
+            replayOffset = 0;
+        }
+
+        System.out.println("✓ Audit journal opened at " + dir.toAbsolutePath() + " (segment " + last
+                + ", fsync " + fsyncPolicy + ")");
+    }
+
+    // ============= APPEND =============
+
+    public void append(AuditWriter.AuditEvent event) {
+        long start = System.nanoTime();
+        byte[] action = utf8(event.action());
+        byte[] entityType = utf8(event.entityType());
+        byte[] metadata = event.metadata() != null ? event.metadata().getBytes(StandardCharsets.UTF_8) : null;
+        int bodyLength = FIXED_BODY_BYTES + action.length + entityType.length
+                + (metadata != null ? metadata.length : 0);
+        int recordLength = 4 + bodyLength + 4;
+
+        if (action.length > Short.MAX_VALUE || entityType.length > Short.MAX_VALUE
+                || recordLength + 4 > segmentBytes) {
+            // Does not fit the record format; hand it to the database writer instead
+            auditWriter.submit(event);
+            return;
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        body.putLong(toMicros(event.timestamp()));
+        body.putLong(event.actorId());
+        body.putLong(event.entityId());
+        body.putShort((short) action.length).put(action);
+        body.putShort((short) entityType.length).put(entityType);
+        body.putInt(metadata != null ? metadata.length : -1);
+        if (metadata != null) body.put(metadata);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+
+        synchronized (writeLock) {
+            // Keep 4 bytes so a zero length always terminates the segment
+            if (writePosition + recordLength + 4 > segmentBytes) {
+                rollover();
+            }
+            int position = writePosition;
+            buffer.position(position + 4);
+            buffer.put(body.array());
+            buffer.putInt((int) crc.getValue());
+            // Length last, so a reader never sees a record before its body
+            buffer.putInt(position, bodyLength);
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                buffer.force(position, recordLength);
+            } else {
+                dirty = true;
+            }
+            writePosition = position + recordLength;
+        }
+        appended.incrementAndGet();
+        appendNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${audit.journal.fsync-interval-ms:100}")
+    public void fsync() {
+        if (fsyncPolicy != FsyncPolicy.INTERVAL) return;
+        synchronized (writeLock) {
+            if (dirty) {
+                buffer.force();
+                dirty = false;
+            }
+        }
+    }
+
+    private void rollover() {
+        try {
+            buffer.force();
+            channel.close();
+            openSegment(currentSegment + 1);
+            writePosition = 0;
+            dirty = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Audit journal rollover failed", e);
+        }
+    }
+
+    private void openSegment(long segment) throws IOException {
+        channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        currentSegment = segment;
+    }
+
+    // ============= REPLAY INTO audit_logs =============
+
+    @Scheduled(fixedDelayString = "${audit.journal.replay-interval-ms:1000}")
+    public synchronized void replay() {
+        try {
+            while (true) {
+                SegmentView segment = segmentView(replaySegment);
+                List<AuditWriter.AuditEvent> batch = new ArrayList<>();
+                int end = readRecords(segment.view(), replayOffset, replayBatchSize, batch);
+
+                if (batch.isEmpty()) {
+                    // Decided from the same snapshot that was read: a segment that was still
+                    // current may have been appended to and rolled over since
+                    if (segment.current()) return;
+                    // Fully replayed and no longer written to
+                    Files.deleteIfExists(segmentPath(replaySegment));
+                    replaySegment++;
+                    replayOffset = 0;
+                    saveCheckpoint();
+                    continue;
+                }
+
+                insert(batch);
+                replayOffset = end;
+                saveCheckpoint();
+                replayed.addAndGet(batch.size());
+                auditWriter.publish(batch);
+            }
+        } catch (Exception e) {
+            // Position is unchanged, so the same records are retried on the next run
+            System.err.println("Audit journal replay paused: " + e.getMessage());
+        }
+    }
+
+    private void insert(List<AuditWriter.AuditEvent> batch) {
+        try {
+            auditWriter.insert(batch);
+        } catch (DataIntegrityViolationException e) {
+            // Isolate the offending rows; everything else still goes in
+            for (AuditWriter.AuditEvent event : batch) {
+                try {
+                    auditWriter.insert(List.of(event));
+                } catch (DataIntegrityViolationException rowError) {
+                    skipped.incrementAndGet();
+                    System.err.println("Audit journal record skipped (" + event.action() + "): "
+                            + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void saveCheckpoint() throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(tmp, replaySegment + " " + replayOffset);
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ============= TAIL SCAN =============
+
+    /** The newest journal records, newest first, read straight from the segment files. */
+    public List<AuditLogDTO> tail(int limit) throws IOException {
+        Deque<AuditWriter.AuditEvent> newest = new ArrayDeque<>();
+        List<Long> segments = listSegments();
+        for (int i = segments.size() - 1; i >= 0 && newest.size() < limit; i--) {
+            List<AuditWriter.AuditEvent> records = new ArrayList<>();
+            readRecords(segmentView(segments.get(i)).view(), 0, Integer.MAX_VALUE, records);
+            for (int r = records.size() - 1; r >= 0 && newest.size() < limit; r--) {
+                newest.addLast(records.get(r));
+            }
+        }
+
+        List<AuditLogDTO> result = new ArrayList<>(newest.size());
+        for (AuditWriter.AuditEvent event : newest) {
+            result.add(new AuditLogDTO(null, event.actorId(), event.action(), event.entityType(),
+                    event.entityId(), event.metadata(), event.timestamp()));
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        long count = appended.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("fsyncPolicy", fsyncPolicy.toString());
+        stats.put("currentSegment", currentSegment);
+        stats.put("writePosition", writePosition);
+        stats.put("replaySegment", replaySegment);
+        stats.put("replayOffset", replayOffset);
+        stats.put("appended", count);
+        stats.put("replayed", replayed.get());
+        stats.put("skipped", skipped.get());
+        stats.put("avgAppendMicros", count == 0 ? 0.0 : appendNanos.get() / 1000.0 / count);
+        return stats;
+    }
+
+    // ============= SEGMENT READING =============
+
+    // Readable part of a segment, and whether it was the segment being written when read
+    private record SegmentView(ByteBuffer view, boolean current) {
+    }
+
+    private SegmentView segmentView(long segment) throws IOException {
+        synchronized (writeLock) {
+            if (segment == currentSegment) {
+                ByteBuffer view = buffer.duplicate();
+                view.limit(writePosition);
+                return new SegmentView(view, true);
+            }
+            // Older segments are complete once rolled over; newer ones do not exist yet
+            if (segment > currentSegment) {
+                return new SegmentView(ByteBuffer.allocate(0), true);
+            }
+        }
+        Path path = segmentPath(segment);
+        if (!Files.exists(path)) {
+            return new SegmentView(ByteBuffer.allocate(0), false);
+        }
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new SegmentView(readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size()), false);
+        }
+    }
+
+    /** Decodes up to max records starting at offset; returns the offset after the last one. */
+    private static int readRecords(ByteBuffer view, int offset, int max, List<AuditWriter.AuditEvent> out) {
+        int position = offset;
+        int limit = view.limit();
+        while (out.size() < max && position + 4 <= limit) {
+            int bodyLength = view.getInt(position);
+            if (bodyLength <= 0 || position + 4 + bodyLength + 4 > limit) break;
+
+            byte[] body = new byte[bodyLength];
+            view.get(position + 4, body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != view.getInt(position + 4 + bodyLength)) break; // torn write
+
+            out.add(decode(ByteBuffer.wrap(body)));
+            position += 4 + bodyLength + 4;
+        }
+        return position;
+    }
+
+    private static int scanEnd(ByteBuffer view, int limit) {
+        view.limit(limit);
+        List<AuditWriter.AuditEvent> ignored = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            ignored.clear();
+            int next = readRecords(view, position, 1024, ignored);
+            if (next == position) return position;
+            position = next;
+        }
+    }
+
+    private static AuditWriter.AuditEvent decode(ByteBuffer body) {
+        long micros = body.getLong();
+        long actorId = body.getLong();
+        long entityId = body.getLong();
+        String action = readString(body, body.getShort());
+        String entityType = readString(body, body.getShort());
+        int metadataLength = body.getInt();
+        String metadata = metadataLength < 0 ? null : readString(body, metadataLength);
+        return new AuditWriter.AuditEvent(actorId, action, entityType, entityId, metadata, fromMicros(micros));
+    }
+
+    private static String readString(ByteBuffer body, int length) {
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (writeLock) {
+            buffer.force();
+        }
+        // Best effort: whatever is left is replayed on the next start
+        replay();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Audit journal close failed: " + e.getMessage());
+        }
+        System.out.println("✓ Audit journal closed");
+    }
+}
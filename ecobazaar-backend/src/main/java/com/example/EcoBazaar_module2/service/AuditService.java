@@ -1,44 +1,89 @@
 package com.example.EcoBazaar_module2.service;
 
-import com.example.EcoBazaar_module2.model.AuditLog;
-import com.example.EcoBazaar_module2.model.User;
+import com.example.EcoBazaar_module2.dto.AuditLogDTO;
+import com.example.EcoBazaar_module2.dto.AuditLogPageDTO;
 import com.example.EcoBazaar_module2.repository.AuditLogRepository;
-import com.example.EcoBazaar_module2.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 
 @Service
 public class AuditService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
     @Autowired
-    private UserRepository userRepository;
-
-    @Transactional
-    public void log(Long actorId, String action, String entityType, Long entityId, String metadata) {
-        User actor = userRepository.findById(actorId)
-                .orElseThrow(() -> new RuntimeException("Actor not found"));
+    private AuditWriter auditWriter;
 
-        AuditLog log = new AuditLog();
-        log.setActor(actor);
-        log.setAction(action);
-        log.setEntityType(entityType);
-        log.setEntityId(entityId);
-        log.setMetadata(metadata);
+    // Present only with audit.sink=journal
+    @Autowired(required = false)
+    private AuditJournal auditJournal;
 
-        auditLogRepository.save(log);
+    /**
+     * Hands an audit event to the configured sink (background DB writer or
+     * journal) once the caller's transaction commits (immediately when there is none).
+     */
+    public void log(Long actorId, String action, String entityType, Long entityId, String metadata) {
+        AuditWriter.AuditEvent event = new AuditWriter.AuditEvent(actorId, action, entityType, entityId,
+                metadata, LocalDateTime.now());
+        TransactionHooks.afterCommit(() -> {
+            if (auditJournal != null) {
+                auditJournal.append(event);
+            } else {
+                auditWriter.submit(event);
+            }
+        });
     }
 
-    public List<AuditLog> getLogsForEntity(String entityType, Long entityId) {
-        return auditLogRepository.findByEntityTypeAndEntityId(entityType, entityId);
+    /** Newest-first history of one entity (first page of {@link #getLogs}). */
+    public List<AuditLogDTO> getLogsForEntity(String entityType, Long entityId) {
+        return getLogs(null, null, entityType, entityId, null, MAX_PAGE_SIZE).getEntries();
     }
 
-    public List<AuditLog> getAllLogs() {
-        return auditLogRepository.findAll();
+    /**
+     * Newest-first audit history in [from, to), optionally for one entity, one page
+     * at a time. Pass the returned nextCursor to get the following page.
+     */
+    public AuditLogPageDTO getLogs(LocalDateTime from, LocalDateTime to, String entityType, Long entityId,
+                                   String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime start = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+
+        // Without a cursor the first page ends just before "to"
+        LocalDateTime cursorTs = to != null ? to : LocalDateTime.now().plusDays(1);
+        long cursorId = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",");
+            if (parts.length != 2) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            cursorTs = LocalDateTime.parse(parts[0]);
+            cursorId = Long.parseLong(parts[1]);
+        }
+
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<AuditLogDTO> entries;
+        if (entityType != null && entityId != null) {
+            entries = auditLogRepository.findEntityPage(entityType, entityId, start, cursorTs, cursorId, page);
+        } else {
+            entries = auditLogRepository.findPage(start, cursorTs, cursorId, page);
+        }
+
+        String nextCursor = null;
+        if (entries.size() == pageSize) {
+            AuditLogDTO last = entries.get(entries.size() - 1);
+            String position = last.getTimestamp() + "," + last.getId();
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+        return new AuditLogPageDTO(entries, nextCursor);
     }
-}
\ No newline at end of file
+}
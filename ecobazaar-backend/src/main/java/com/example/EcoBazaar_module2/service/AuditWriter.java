@@ -0,0 +1,194 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.RecentActivityDTO;
+import com.example.EcoBazaar_module2.model.User;
+import com.example.EcoBazaar_module2.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes audit events off the request path. Events go onto a bounded queue and a
+ * single background thread drains them in batches with one JDBC batch insert per
+ * batch, referencing actors by id instead of loading them.
+ *
+ * When the queue is full the configured overflow policy applies:
+ * BLOCK waits up to the offer timeout and then writes on the caller's thread,
+ * CALLER_RUNS writes on the caller's thread immediately, DROP discards the event.
+ * Remaining events are flushed on shutdown.
+ */
+@Component
+public class AuditWriter {
+
+    public enum OverflowPolicy { BLOCK, CALLER_RUNS, DROP }
+
+    public record AuditEvent(Long actorId, String action, String entityType, Long entityId,
+                             String metadata, LocalDateTime timestamp) {
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO audit_logs " +
+            "(actor_id, action, entity_type, entity_id, metadata, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Value("${audit.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${audit.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${audit.writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${audit.writer.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${audit.writer.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecentActivityFeed recentActivityFeed;
+
+    private BlockingQueue<AuditEvent> queue;
+    private Thread worker;
+    private volatile boolean running;
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::drainLoop, "audit-writer");
+        worker.start();
+        System.out.println("✓ Audit writer started (capacity " + queueCapacity + ", batch " + batchSize
+                + ", overflow " + overflowPolicy + ")");
+    }
+
+    public void submit(AuditEvent event) {
+        if (!running) {
+            write(List.of(event));
+            return;
+        }
+        if (queue.offer(event)) return;
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    if (queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                write(List.of(event));
+            }
+            case CALLER_RUNS -> write(List.of(event));
+            case DROP -> {
+                long count = dropped.incrementAndGet();
+                if (count == 1 || count % 1000 == 0) {
+                    System.err.println("Audit queue full, dropped " + count + " events so far");
+                }
+            }
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Audit writer error: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            insert(batch);
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                System.err.println("Audit event dropped (" + batch.get(0).action() + "): " + e.getMessage());
+                return;
+            }
+            // One bad row (e.g. unknown actor) must not lose the whole batch
+            for (AuditEvent event : batch) {
+                write(List.of(event));
+            }
+            return;
+        }
+        publish(batch);
+    }
+
+    /** One JDBC batch insert; throws on failure and publishes nothing. */
+    void insert(List<AuditEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+            ps.setLong(1, event.actorId());
+            ps.setString(2, event.action());
+            ps.setString(3, event.entityType());
+            ps.setLong(4, event.entityId());
+            ps.setString(5, event.metadata());
+            ps.setTimestamp(6, Timestamp.valueOf(event.timestamp()));
+        });
+    }
+
+    void publish(List<AuditEvent> batch) {
+        Set<Long> actorIds = new HashSet<>();
+        batch.forEach(event -> actorIds.add(event.actorId()));
+        Map<Long, String> names = new HashMap<>();
+        for (User user : userRepository.findAllById(actorIds)) {
+            names.put(user.getId(), user.getFullName());
+        }
+        for (AuditEvent event : batch) {
+            recentActivityFeed.publish(new RecentActivityDTO(names.get(event.actorId()), event.action(),
+                    event.entityType(), event.entityId(), event.timestamp(), event.metadata()));
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        // The worker sees the flag within one poll interval and drains what is left
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<AuditEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+        System.out.println("✓ Audit writer stopped");
+    }
+}
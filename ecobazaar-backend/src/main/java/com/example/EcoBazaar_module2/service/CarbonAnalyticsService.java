@@ -2,8 +2,10 @@ package com.example.EcoBazaar_module2.service;
 
 import com.example.EcoBazaar_module2.model.Order;
 import com.example.EcoBazaar_module2.model.OrderItem;
+import com.example.EcoBazaar_module2.repository.ArchivedOrderRepository;
 import com.example.EcoBazaar_module2.repository.OrderRepository;
 import com.example.EcoBazaar_module2.repository.ProductRepository; // <--- NEW IMPORT
+import com.example.EcoBazaar_module2.repository.UserEcoProgressRepository;
 import com.example.EcoBazaar_module2.repository.UserRepository;    // <--- NEW IMPORT
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,17 +17,29 @@ import java.util.Map;
 @Service
 public class CarbonAnalyticsService {
 
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
     @Autowired
     private UserRepository userRepository;       // <--- INJECTED
 
     @Autowired
     private ProductRepository productRepository; // <--- INJECTED
 
+    @Autowired
+    private UserEcoProgressRepository progressRepository;
+
+    @Autowired
+    private EcoPercentileService ecoPercentileService;
+
     public Map<String, Object> getUserCarbonReport(Long userId) {
-        List<Order> orders = orderRepository.findByUserId(userId);
+        List<Order> orders = orderHistoryService.findByUserId(userId);
 
         double totalCarbonFootprint = orders.stream()
                 .mapToDouble(Order::getTotalCarbonFootprint)
@@ -54,19 +68,24 @@ public class CarbonAnalyticsService {
         report.put("badge", badge);
         report.put("totalOrders", orders.size());
 
+        // Platform-wide ranking from the quantile sketches (O(1) lookups)
+        progressRepository.findById(userId).ifPresent(progress ->
+                report.put("ecoScorePercentile", ecoPercentileService.ecoScorePercentile(EcoScore.of(progress))));
+        if (!orders.isEmpty()) {
+            report.put("orderCarbonPercentile",
+                    ecoPercentileService.orderCarbonPercentile(totalCarbonFootprint / orders.size()));
+        }
+
         return report;
     }
 
     public Map<String, Object> getPlatformCarbonSummary() {
-        List<Order> allOrders = orderRepository.findAll();
-
-        double totalCarbon = allOrders.stream()
-                .mapToDouble(Order::getTotalCarbonFootprint)
-                .sum();
-
-        double totalRevenue = allOrders.stream()
-                .mapToDouble(Order::getTotalAmount)
-                .sum();
+        // [order count, amount, carbon] over hot and archived orders, summed in the database
+        Object[] hot = orderRepository.sumTotals().get(0);
+        Object[] archived = archivedOrderRepository.sumTotals().get(0);
+        long orderCount = ((Number) hot[0]).longValue() + ((Number) archived[0]).longValue();
+        double totalRevenue = ((Number) hot[1]).doubleValue() + ((Number) archived[1]).doubleValue();
+        double totalCarbon = ((Number) hot[2]).doubleValue() + ((Number) archived[2]).doubleValue();
 
         Map<String, Object> summary = new HashMap<>();
 
@@ -78,10 +97,10 @@ public class CarbonAnalyticsService {
         summary.put("totalProducts", totalProducts);
         // --- NEW LOGIC END ---
 
-        summary.put("totalOrders", allOrders.size());
+        summary.put("totalOrders", orderCount);
         summary.put("totalCarbonFootprint", totalCarbon);
         summary.put("totalRevenue", totalRevenue);
-        summary.put("averageCarbonPerOrder", allOrders.isEmpty() ? 0 : totalCarbon / allOrders.size());
+        summary.put("averageCarbonPerOrder", orderCount == 0 ? 0 : totalCarbon / orderCount);
 
         return summary;
     }
@@ -1,16 +1,63 @@
 package com.example.EcoBazaar_module2.service;
 
+import com.example.EcoBazaar_module2.dto.CartItemOperation;
+import com.example.EcoBazaar_module2.dto.CartItemViewDTO;
+import com.example.EcoBazaar_module2.dto.CartViewDTO;
 import com.example.EcoBazaar_module2.model.*;
 import com.example.EcoBazaar_module2.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Cart writes go straight to SQL. The cart row is created with INSERT ... ON CONFLICT
+ * DO NOTHING and lines are upserted on the (cart_id, product_id) unique key, so nothing
+ * is read back to choose between insert and update. Every change starts by bumping the
+ * cart revision with an UPDATE, which also takes the cart row lock: changes to one cart
+ * are serialised and reach the read model (CartViewService) in revision order.
+ */
 @Service
 public class CartService {
 
+    static final int MAX_BATCH_OPERATIONS = 500;
+
+    private static final String LOCK_CART =
+            "UPDATE carts SET revision = revision + 1, updated_at = now() WHERE user_id = ? RETURNING id, revision";
+
+    // One statement per kind for the whole batch. Ids come from the sequence Hibernate also
+    // allocates from; each nextval skips a whole allocation block, so the two never collide.
+    private static final String UPSERT_ADD =
+            "INSERT INTO cart_items (id, cart_id, product_id, quantity) " +
+            "SELECT nextval('cart_items_seq'), ?, u.product_id, u.quantity " +
+            "FROM unnest(?::bigint[], ?::int[]) AS u(product_id, quantity) " +
+            "ON CONFLICT (cart_id, product_id) DO UPDATE SET quantity = cart_items.quantity + EXCLUDED.quantity " +
+            "RETURNING id, product_id, quantity";
+
+    private static final String UPSERT_SET =
+            "INSERT INTO cart_items (id, cart_id, product_id, quantity) " +
+            "SELECT nextval('cart_items_seq'), ?, u.product_id, u.quantity " +
+            "FROM unnest(?::bigint[], ?::int[]) AS u(product_id, quantity) " +
+            "ON CONFLICT (cart_id, product_id) DO UPDATE SET quantity = EXCLUDED.quantity " +
+            "RETURNING id, product_id, quantity";
+
+    private static final String DELETE_PRODUCTS =
+            "DELETE FROM cart_items WHERE cart_id = ? AND product_id = ANY(?) RETURNING id";
+
+    private record CartRef(Long id, long revision) {
+    }
+
+    // Net effect of a batch on one product: ADD (increment), SET (absolute) or REMOVE
+    private record Pending(String op, int quantity) {
+    }
+
     @Autowired
     private CartRepository cartRepository;
 
@@ -23,61 +70,202 @@ public class CartService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CartViewService cartViewService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     public Cart getUserCart(Long userId) {
         return cartRepository.findByUserId(userId).orElseGet(() -> {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            Cart cart = new Cart();
-            cart.setUser(user);
-            return cartRepository.save(cart);
+            createCart(userId);
+            return cartRepository.findByUserId(userId)
+                    .orElseThrow(() -> new RuntimeException("Cart not found"));
         });
     }
 
+    /** Cart with resolved lines and totals; served from the read model, no query on a hit. */
+    public CartViewDTO getCartView(Long userId) {
+        return cartViewService.get(userId, this::loadCartView);
+    }
+
+    @Transactional
+    public CartItemViewDTO addItemToCart(Long userId, Long productId, Integer quantity) {
+        return applyOperations(userId, List.of(new CartItemOperation("ADD", productId, quantity))).get(0);
+    }
+
+    /**
+     * Applies many ADD / SET / REMOVE operations (by product) in one transaction, all or
+     * nothing. Operations on the same product are folded in order first, so the batch
+     * costs a fixed handful of statements however many lines it touches.
+     */
     @Transactional
-    public CartItem addItemToCart(Long userId, Long productId, Integer quantity) {
-        Cart cart = getUserCart(userId);
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+    public List<CartItemViewDTO> applyOperations(Long userId, List<CartItemOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new RuntimeException("No cart operations given");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new RuntimeException("At most " + MAX_BATCH_OPERATIONS + " cart operations per request");
+        }
+
+        Map<Long, Pending> pending = new LinkedHashMap<>();
+        for (CartItemOperation operation : operations) {
+            fold(pending, operation);
+        }
 
-        if (!product.isActive() || !product.isVerified()) {
-            throw new RuntimeException("Product not available");
+        // Validate every product that gains quantity before touching the cart
+        List<Long> stocked = pending.entrySet().stream()
+                .filter(e -> !e.getValue().op().equals("REMOVE"))
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<Long, Object[]> products = new HashMap<>();
+        if (!stocked.isEmpty()) {
+            for (Object[] row : productRepository.findCartLineRows(stocked)) {
+                products.put((Long) row[0], row);
+            }
         }
+        for (Long productId : stocked) {
+            Object[] product = products.get(productId);
+            if (product == null) {
+                throw new RuntimeException("Product not found");
+            }
+            if (!(Boolean) product[6] || !(Boolean) product[7]) {
+                throw new RuntimeException("Product not available");
+            }
+        }
+
+        CartRef cart = lockCart(userId);
+        List<CartItemViewDTO> saved = new ArrayList<>();
+        saved.addAll(upsert(UPSERT_ADD, cart, pending, "ADD", products));
+        saved.addAll(upsert(UPSERT_SET, cart, pending, "SET", products));
 
-        // Check if item already exists
-        CartItem existingItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElse(null);
-
-        if (existingItem != null) {
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
-            return cartItemRepository.save(existingItem);
-        } else {
-            CartItem newItem = new CartItem();
-            newItem.setCart(cart);
-            newItem.setProduct(product);
-            newItem.setQuantity(quantity);
-            return cartItemRepository.save(newItem);
+        List<Long> removedIds = new ArrayList<>();
+        Long[] removeProducts = pending.entrySet().stream()
+                .filter(e -> e.getValue().op().equals("REMOVE"))
+                .map(Map.Entry::getKey)
+                .toArray(Long[]::new);
+        if (removeProducts.length > 0) {
+            removedIds = jdbcTemplate.queryForList(DELETE_PRODUCTS, Long.class, cart.id(), removeProducts);
         }
+
+        List<Long> removed = removedIds;
+        TransactionHooks.afterCommit(() -> cartViewService.itemsChanged(userId, cart.id(), cart.revision(), saved, removed));
+        return saved;
     }
 
     @Transactional
     public void removeItemFromCart(Long userId, Long cartItemId) {
-        Cart cart = getUserCart(userId);
-        CartItem item = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
-
-        if (!item.getCart().getId().equals(cart.getId())) {
-            throw new RuntimeException("Unauthorized");
+        CartRef cart = lockCart(userId);
+        int deleted = jdbcTemplate.update("DELETE FROM cart_items WHERE id = ? AND cart_id = ?",
+                cartItemId, cart.id());
+        if (deleted == 0) {
+            throw new RuntimeException(cartItemRepository.existsById(cartItemId)
+                    ? "Unauthorized" : "Cart item not found");
         }
 
-        cartItemRepository.delete(item);
+        TransactionHooks.afterCommit(() -> cartViewService.itemsChanged(userId, cart.id(), cart.revision(), List.of(),
+                List.of(cartItemId)));
+    }
+
+    /**
+     * Takes the cart row lock for a checkout and returns the cart read under it, so no
+     * line can be added or changed between reading the lines and clearing them. The
+     * revision is left alone; clearCart bumps it when the lines go.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Cart lockCartForCheckout(Long userId) {
+        jdbcTemplate.queryForList("SELECT id FROM carts WHERE user_id = ? FOR UPDATE", Long.class, userId);
+        return getUserCart(userId);
     }
 
     @Transactional
     public void clearCart(Long userId) {
-        Cart cart = getUserCart(userId);
-        cartItemRepository.deleteAll(cart.getItems());
-        cart.getItems().clear();
+        CartRef cart = lockCart(userId);
+        jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ?", cart.id());
+
+        TransactionHooks.afterCommit(() -> cartViewService.cleared(userId, cart.id(), cart.revision()));
+    }
+
+    private void fold(Map<Long, Pending> pending, CartItemOperation operation) {
+        Long productId = operation.getProductId();
+        if (productId == null) {
+            throw new RuntimeException("productId is required");
+        }
+        String op = operation.getOp() != null ? operation.getOp().toUpperCase() : "ADD";
+        switch (op) {
+            case "ADD" -> {
+                int quantity = operation.getQuantity() != null ? operation.getQuantity() : 1;
+                if (quantity < 1) {
+                    throw new RuntimeException("Quantity must be at least 1");
+                }
+                pending.merge(productId, new Pending("ADD", quantity), (before, add) ->
+                        before.op().equals("REMOVE")
+                                ? new Pending("SET", quantity)
+                                : new Pending(before.op(), before.quantity() + quantity));
+            }
+            case "SET" -> {
+                Integer quantity = operation.getQuantity();
+                if (quantity == null || quantity < 0) {
+                    throw new RuntimeException("SET needs a quantity of 0 or more");
+                }
+                pending.put(productId, quantity == 0 ? new Pending("REMOVE", 0) : new Pending("SET", quantity));
+            }
+            case "REMOVE" -> pending.put(productId, new Pending("REMOVE", 0));
+            default -> throw new RuntimeException("Unknown cart operation " + operation.getOp());
+        }
+    }
+
+    private List<CartItemViewDTO> upsert(String sql, CartRef cart, Map<Long, Pending> pending, String op,
+                                         Map<Long, Object[]> products) {
+        List<Long> productIds = new ArrayList<>();
+        List<Integer> quantities = new ArrayList<>();
+        pending.forEach((productId, change) -> {
+            if (change.op().equals(op)) {
+                productIds.add(productId);
+                quantities.add(change.quantity());
+            }
+        });
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> cartViewService.line(rs.getLong("id"),
+                        products.get(rs.getLong("product_id")), rs.getInt("quantity")),
+                cart.id(), productIds.toArray(new Long[0]), quantities.toArray(new Integer[0]));
+    }
+
+    /** Bumps the cart revision, taking the cart row lock; creates the cart first if needed. */
+    private CartRef lockCart(Long userId) {
+        List<CartRef> rows = jdbcTemplate.query(LOCK_CART,
+                (rs, rowNum) -> new CartRef(rs.getLong("id"), rs.getLong("revision")), userId);
+        if (rows.isEmpty()) {
+            createCart(userId);
+            rows = jdbcTemplate.query(LOCK_CART,
+                    (rs, rowNum) -> new CartRef(rs.getLong("id"), rs.getLong("revision")), userId);
+        }
+        return rows.get(0);
+    }
+
+    private void createCart(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        cartRepository.insertIfAbsent(userId);
+    }
+
+    private CartViewDTO loadCartView(Long userId) {
+        List<Object[]> rows = cartRepository.findViewRows(userId);
+        if (rows.isEmpty()) {
+            Cart cart = getUserCart(userId);
+            return cartViewService.view(cart.getId(), userId, cart.getRevision(), new ArrayList<>());
+        }
+
+        List<CartItemViewDTO> items = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row[2] != null) {
+                items.add(cartViewService.line(row));
+            }
+        }
+        return cartViewService.view((Long) rows.get(0)[0], userId, (Long) rows.get(0)[1], items);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package com.example.EcoBazaar_module2.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deletes abandoned carts: carts whose last change (carts.updated_at, bumped by every
+ * item change) is older than the idle age. Carts from before updated_at meant that
+ * are stamped once at startup, see CartActivityInitializer. Idle carts are walked in (updated_at, id)
+ * keyset order a chunk at a time; each chunk is its own short transaction that only
+ * locks the carts it deletes, and carts being used right now are skipped, not waited on.
+ */
+@Service
+public class CartSweeperService {
+
+    private static final String SELECT_CHUNK = "SELECT id, user_id, updated_at FROM carts " +
+            "WHERE updated_at < ? AND (updated_at, id) > (?, ?) " +
+            "ORDER BY updated_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private record IdleCart(Long id, Long userId, Timestamp updatedAt) {
+    }
+
+    private record Chunk(int selected, int carts, int items, Timestamp lastUpdatedAt, long lastId) {
+    }
+
+    @Value("${cart.sweeper.idle-days:30}")
+    private int idleDays;
+
+    @Value("${cart.sweeper.chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CartViewService cartViewService;
+
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunCarts;
+    private volatile long lastRunItems;
+    private volatile long lastRunMillis;
+    private volatile long totalCarts;
+    private volatile long totalItems;
+
+    @Scheduled(cron = "${cart.sweeper.cron:0 15 4 * * *}")
+    public void sweep() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(idleDays));
+        long started = System.currentTimeMillis();
+        long carts = 0;
+        long items = 0;
+        Timestamp afterUpdatedAt = new Timestamp(0);
+        long afterId = 0;
+        try {
+            Chunk chunk;
+            do {
+                Timestamp fromUpdatedAt = afterUpdatedAt;
+                long fromId = afterId;
+                chunk = transactionTemplate.execute(tx -> deleteChunk(cutoff, fromUpdatedAt, fromId));
+                carts += chunk.carts();
+                items += chunk.items();
+                afterUpdatedAt = chunk.lastUpdatedAt();
+                afterId = chunk.lastId();
+            } while (chunk.selected() == chunkSize);
+        } catch (Exception e) {
+            // Each chunk is its own transaction; whatever is left is picked up on the next run
+            System.err.println("Cart sweep failed: " + e.getMessage());
+        }
+
+        long millis = System.currentTimeMillis() - started;
+        lastRunAt = LocalDateTime.now();
+        lastRunCarts = carts;
+        lastRunItems = items;
+        lastRunMillis = millis;
+        totalCarts += carts;
+        totalItems += items;
+        if (carts > 0) {
+            System.out.println("✓ Swept " + carts + " abandoned carts (" + items + " items) idle since "
+                    + cutoff.toLocalDateTime().toLocalDate() + " in " + millis + " ms ("
+                    + perSecond(carts, millis) + " carts/s)");
+        }
+    }
+
+    /** Figures of the last sweep and running totals since startup. */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("idleDays", idleDays);
+        stats.put("chunkSize", chunkSize);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunCarts", lastRunCarts);
+        stats.put("lastRunItems", lastRunItems);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("lastRunCartsPerSecond", perSecond(lastRunCarts, lastRunMillis));
+        stats.put("lastRunItemsPerSecond", perSecond(lastRunItems, lastRunMillis));
+        stats.put("totalCarts", totalCarts);
+        stats.put("totalItems", totalItems);
+        return stats;
+    }
+
+    private Chunk deleteChunk(Timestamp cutoff, Timestamp afterUpdatedAt, long afterId) {
+        List<IdleCart> idle = jdbcTemplate.query(SELECT_CHUNK,
+                (rs, rowNum) -> new IdleCart(rs.getLong("id"), rs.getLong("user_id"), rs.getTimestamp("updated_at")),
+                cutoff, afterUpdatedAt, afterId, chunkSize);
+        if (idle.isEmpty()) {
+            return new Chunk(0, 0, 0, afterUpdatedAt, afterId);
+        }
+
+        Long[] cartIds = idle.stream().map(IdleCart::id).toArray(Long[]::new);
+        int items = jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ANY(?)", (Object) cartIds);
+        int carts = jdbcTemplate.update("DELETE FROM carts WHERE id = ANY(?)", (Object) cartIds);
+
+        List<Long> userIds = new ArrayList<>(idle.size());
+        idle.forEach(cart -> userIds.add(cart.userId()));
+        TransactionHooks.afterCommit(() -> cartViewService.evict(userIds));
+
+        IdleCart last = idle.get(idle.size() - 1);
+        return new Chunk(idle.size(), carts, items, last.updatedAt(), last.id());
+    }
+
+    private static long perSecond(long count, long millis) {
+        return millis > 0 ? count * 1000 / millis : count;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.CartItemViewDTO;
+import com.example.EcoBazaar_module2.dto.CartViewDTO;
+import com.example.EcoBazaar_module2.model.Product;
+import com.example.EcoBazaar_module2.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-user cart read model. A cached view holds the cart lines with product name,
+ * price and carbon already resolved plus the precomputed totals, so a cart read on
+ * a hit is a map lookup. Views live in a bounded LRU map and are kept current
+ * write-through: CartService hands every committed item change to this class, and
+ * product updates delivered through the outbox refresh the lines showing the product.
+ *
+ * Each change carries the cart id and the revision it produced. A change is applied
+ * only on top of the revision right before it; otherwise the entry is replaced by a
+ * stub (version known, contents not) and the next read reloads it. Views are replaced, never mutated,
+ * so readers always see a consistent snapshot.
+ */
+@Service
+public class CartViewService {
+
+    @Value("${cart.view-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Map<Long, CartViewDTO> carts;
+
+    // Image data URIs can be large; cached lines of the same product share one string
+    private Map<Long, String> images;
+
+    @PostConstruct
+    public void init() {
+        carts = lruMap(maxEntries);
+        images = lruMap(maxEntries);
+    }
+
+    /** Cached view of the user's cart; on a miss {@code loader} reads it from the database. */
+    public CartViewDTO get(Long userId, Function<Long, CartViewDTO> loader) {
+        CartViewDTO cached = carts.get(userId);
+        if (cached != null && cached.getItems() != null) {
+            return cached;
+        }
+
+        CartViewDTO loaded = loader.apply(userId);
+        // A change that committed while we were loading may already have left a newer revision
+        CartViewDTO kept = carts.merge(userId, loaded,
+                (current, fresh) -> isNewer(current, fresh.getId(), fresh.getRevision()) ? current : fresh);
+        return kept.getItems() != null ? kept : loaded;
+    }
+
+    /**
+     * Write-through of one committed cart change (call after commit): lines added or
+     * re-quantified and lines removed.
+     */
+    public void itemsChanged(Long userId, Long cartId, long revision, List<CartItemViewDTO> saved,
+                             Collection<Long> removedIds) {
+        apply(userId, cartId, revision, items -> {
+            Set<Long> replaced = new HashSet<>(removedIds);
+            saved.forEach(line -> replaced.add(line.getId()));
+            List<CartItemViewDTO> updated = new ArrayList<>(items.size() + saved.size());
+            for (CartItemViewDTO item : items) {
+                if (!replaced.contains(item.getId())) updated.add(item);
+            }
+            updated.addAll(saved);
+            updated.sort(Comparator.comparing(CartItemViewDTO::getId));
+            return updated;
+        });
+    }
+
+    /** Write-through of an emptied cart (call after commit). */
+    public void cleared(Long userId, Long cartId, long revision) {
+        apply(userId, cartId, revision, items -> new ArrayList<>());
+    }
+
+    /** Drops the views of carts that were deleted (call after commit). */
+    public void evict(Collection<Long> userIds) {
+        userIds.forEach(carts::remove);
+    }
+
+    /** Re-reads a changed product and refreshes every cached line showing it (outbox delivery). */
+    @EventListener
+    public void onProductChanged(OutboxService.ProductChanged event) {
+        if (event.change().equals("CREATED")) return;
+
+        Long productId = event.productId();
+        List<Long> affected = new ArrayList<>();
+        synchronized (carts) {
+            carts.forEach((userId, view) -> {
+                if (view.getItems() != null
+                        && view.getItems().stream().anyMatch(item -> item.getProductId().equals(productId))) {
+                    affected.add(userId);
+                }
+            });
+        }
+        if (affected.isEmpty()) return;
+
+        List<Object[]> rows = productRepository.findCartLineRows(List.of(productId));
+        Object[] product = rows.isEmpty() ? null : rows.get(0);
+        for (Long userId : affected) {
+            carts.computeIfPresent(userId, (id, view) -> {
+                if (view.getItems() == null) return view;
+                if (product == null) return null;
+                List<CartItemViewDTO> updated = new ArrayList<>(view.getItems().size());
+                for (CartItemViewDTO item : view.getItems()) {
+                    updated.add(item.getProductId().equals(productId)
+                            ? line(item.getId(), product, item.getQuantity())
+                            : item);
+                }
+                return view(view.getId(), userId, view.getRevision(), updated);
+            });
+        }
+    }
+
+    /** Line from a {@link com.example.EcoBazaar_module2.repository.CartRepository#findViewRows} row. */
+    public CartItemViewDTO line(Object[] row) {
+        return line((Long) row[2], (Long) row[3], (String) row[4], (Double) row[5], (Integer) row[6],
+                (String) row[7], (String) row[8], ((Number) row[9]).doubleValue());
+    }
+
+    /** Line from a {@link ProductRepository#findCartLineRows} row. */
+    public CartItemViewDTO line(Long itemId, Object[] productRow, int quantity) {
+        return line(itemId, (Long) productRow[0], (String) productRow[1], (Double) productRow[2], quantity,
+                (String) productRow[3], (String) productRow[4], ((Number) productRow[5]).doubleValue());
+    }
+
+    private CartItemViewDTO line(Long itemId, Long productId, String name, Double price, int quantity,
+                                 String imageBase64, String category, double carbon) {
+        return new CartItemViewDTO(itemId, productId, name, price, quantity,
+                image(productId, Product.imageUrlOf(imageBase64)), category, carbon, Product.ecoRatingOf(carbon));
+    }
+
+    public CartViewDTO view(Long cartId, Long userId, long revision, List<CartItemViewDTO> items) {
+        double totalAmount = 0;
+        double totalCarbon = 0;
+        for (CartItemViewDTO item : items) {
+            totalAmount += item.getPrice() * item.getQuantity();
+            totalCarbon += item.getCarbonFootprint() * item.getQuantity();
+        }
+        return new CartViewDTO(cartId, userId, revision, Collections.unmodifiableList(items), items.size(),
+                totalAmount, totalCarbon);
+    }
+
+    private void apply(Long userId, Long cartId, long revision, UnaryOperator<List<CartItemViewDTO>> change) {
+        carts.compute(userId, (id, view) -> {
+            if (view != null && (isNewer(view, cartId, revision) || (cartId.equals(view.getId())
+                    && view.getRevision() == revision))) {
+                return view; // loaded after this change committed
+            }
+            if (view == null || view.getItems() == null || !cartId.equals(view.getId())
+                    || view.getRevision() != revision - 1) {
+                return new CartViewDTO(cartId, userId, revision, null, 0, 0, 0);
+            }
+            return view(cartId, userId, revision, change.apply(view.getItems()));
+        });
+    }
+
+    // Versions order by cart id first: a swept cart is replaced by one with a higher id whose revision restarts
+    private static boolean isNewer(CartViewDTO view, Long cartId, long revision) {
+        int byCart = Long.compare(view.getId() != null ? view.getId() : 0L, cartId != null ? cartId : 0L);
+        return byCart != 0 ? byCart > 0 : view.getRevision() > revision;
+    }
+
+    private String image(Long productId, String imageUrl) {
+        String shared = images.putIfAbsent(productId, imageUrl);
+        if (shared != null && shared.equals(imageUrl)) {
+            return shared;
+        }
+        if (shared != null) {
+            images.put(productId, imageUrl);
+        }
+        return imageUrl;
+    }
+
+    private static <V> Map<Long, V> lruMap(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+}
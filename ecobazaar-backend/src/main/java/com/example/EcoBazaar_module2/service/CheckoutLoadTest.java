@@ -0,0 +1,313 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.config.StatementCounter;
+import com.example.EcoBazaar_module2.model.Product;
+import com.example.EcoBazaar_module2.model.ProductCarbonData;
+import com.example.EcoBazaar_module2.model.Role;
+import com.example.EcoBazaar_module2.model.User;
+import com.example.EcoBazaar_module2.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checkout load test, active only with the loadtest profile (which recreates the
+ * schema in a scratch database, see application-loadtest.properties):
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=loadtest
+ *
+ * Seeds users with carts and a catalogue whose first few products are in every
+ * cart (so checkouts contend on the same stock rows), then runs a weighted mix of
+ * checkouts, cart adds and product reads from a fixed number of threads. Writes
+ * throughput, latency percentiles, deadlocks, lock waits and SQL statements per
+ * operation as JSON to loadtest.output and exits.
+ */
+@Component
+@Profile("loadtest")
+public class CheckoutLoadTest {
+
+    private static final String[] OPERATIONS = {"checkout", "cartAdd", "productRead"};
+
+    @Value("${loadtest.users:200}")
+    private int userCount;
+
+    @Value("${loadtest.products:50}")
+    private int productCount;
+
+    @Value("${loadtest.hot-products:5}")
+    private int hotProducts;
+
+    @Value("${loadtest.cart-lines:3}")
+    private int cartLines;
+
+    @Value("${loadtest.threads:16}")
+    private int threads;
+
+    @Value("${loadtest.duration-seconds:60}")
+    private int durationSeconds;
+
+    @Value("${loadtest.checkout-weight:20}")
+    private int checkoutWeight;
+
+    @Value("${loadtest.cart-add-weight:40}")
+    private int cartAddWeight;
+
+    @Value("${loadtest.product-read-weight:40}")
+    private int productReadWeight;
+
+    @Value("${loadtest.output:loadtest-results.json}")
+    private String output;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationContext context;
+
+    // Per-operation results of one worker thread; merged at the end
+    private static class WorkerStats {
+        final long[][] latencies = new long[OPERATIONS.length][];
+        final int[] counts = new int[OPERATIONS.length];
+        final int[] errors = new int[OPERATIONS.length];
+        final long[] statements = new long[OPERATIONS.length];
+        int deadlocks;
+        int lockTimeouts;
+
+        WorkerStats() {
+            for (int i = 0; i < OPERATIONS.length; i++) latencies[i] = new long[1024];
+        }
+
+        void record(int op, long nanos, long statementCount) {
+            if (counts[op] == latencies[op].length) {
+                latencies[op] = Arrays.copyOf(latencies[op], counts[op] * 2);
+            }
+            latencies[op][counts[op]++] = nanos;
+            statements[op] += statementCount;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void run() throws Exception {
+        System.out.println("✓ Load test: seeding " + userCount + " users, " + productCount + " products");
+        List<Long> productIds = seedProducts();
+        List<Long> userIds = seedUsers();
+        for (Long userId : userIds) {
+            fillCart(userId, productIds, new Random(userId));
+        }
+
+        long deadlocksBefore = databaseDeadlocks();
+        AtomicLong lockWaitSamples = new AtomicLong();
+        AtomicLong lockWaitTotal = new AtomicLong();
+        AtomicLong lockWaitMax = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            Long waiting = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_locks WHERE NOT granted", Long.class);
+            lockWaitSamples.incrementAndGet();
+            lockWaitTotal.addAndGet(waiting);
+            lockWaitMax.accumulateAndGet(waiting, Math::max);
+        }, 0, 50, TimeUnit.MILLISECONDS);
+
+        System.out.println("✓ Load test: running " + threads + " threads for " + durationSeconds + "s");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<WorkerStats>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            // Each worker owns a disjoint slice of the users, so no two threads share a cart
+            List<Long> ownUsers = new ArrayList<>();
+            for (int i = t; i < userIds.size(); i += threads) ownUsers.add(userIds.get(i));
+            long seed = t;
+            futures.add(pool.submit(() -> work(ownUsers, productIds, deadline, new Random(seed))));
+        }
+        List<WorkerStats> workers = new ArrayList<>();
+        for (Future<WorkerStats> future : futures) workers.add(future.get());
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        pool.shutdown();
+        sampler.shutdown();
+
+        Map<String, Object> report = report(workers, elapsedSeconds);
+        Map<String, Object> contention = new LinkedHashMap<>();
+        contention.put("deadlocks", workers.stream().mapToInt(w -> w.deadlocks).sum());
+        contention.put("databaseDeadlocks", databaseDeadlocks() - deadlocksBefore);
+        contention.put("lockTimeouts", workers.stream().mapToInt(w -> w.lockTimeouts).sum());
+        contention.put("avgWaitingLocks", lockWaitSamples.get() == 0 ? 0.0
+                : (double) lockWaitTotal.get() / lockWaitSamples.get());
+        contention.put("maxWaitingLocks", lockWaitMax.get());
+        report.put("contention", contention);
+
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(output), report);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        System.out.println("✓ Load test results written to " + output);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    private WorkerStats work(List<Long> users, List<Long> productIds, long deadline, Random random) {
+        WorkerStats stats = new WorkerStats();
+        int totalWeight = checkoutWeight + cartAddWeight + productReadWeight;
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(totalWeight);
+            int op = pick < checkoutWeight ? 0 : pick < checkoutWeight + cartAddWeight ? 1 : 2;
+            Long userId = users.get(random.nextInt(users.size()));
+
+            if (op == 0 && cartService.getUserCart(userId).getItems().isEmpty()) {
+                fillCart(userId, productIds, random); // not timed
+            }
+
+            long statementsBefore = StatementCounter.current();
+            long start = System.nanoTime();
+            try {
+                switch (op) {
+                    case 0 -> orderService.createOrderFromCart(userId, "1 Load Test Way", "0000000000", "Credit Card");
+                    case 1 -> cartService.addItemToCart(userId,
+                            productIds.get(random.nextInt(productIds.size())), 1);
+                    default -> productService.getProductById(productIds.get(random.nextInt(productIds.size())));
+                }
+                stats.record(op, System.nanoTime() - start, StatementCounter.current() - statementsBefore);
+            } catch (Exception e) {
+                stats.errors[op]++;
+                String sqlState = sqlState(e);
+                if ("40P01".equals(sqlState)) stats.deadlocks++;
+                if ("55P03".equals(sqlState)) stats.lockTimeouts++;
+            }
+        }
+        return stats;
+    }
+
+    private Map<String, Object> report(List<WorkerStats> workers, double elapsedSeconds) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", LocalDateTime.now().toString());
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("users", userCount);
+        config.put("products", productCount);
+        config.put("hotProducts", hotProducts);
+        config.put("cartLines", cartLines);
+        config.put("threads", threads);
+        config.put("durationSeconds", durationSeconds);
+        config.put("weights", Map.of("checkout", checkoutWeight, "cartAdd", cartAddWeight,
+                "productRead", productReadWeight));
+        report.put("config", config);
+        report.put("elapsedSeconds", elapsedSeconds);
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            int count = 0, errors = 0;
+            long statements = 0;
+            for (WorkerStats w : workers) {
+                count += w.counts[op];
+                errors += w.errors[op];
+                statements += w.statements[op];
+            }
+            long[] all = new long[count];
+            int offset = 0;
+            for (WorkerStats w : workers) {
+                System.arraycopy(w.latencies[op], 0, all, offset, w.counts[op]);
+                offset += w.counts[op];
+            }
+            Arrays.sort(all);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", count);
+            result.put("errors", errors);
+            result.put("throughputPerSecond", count / elapsedSeconds);
+            result.put("latencyMs", Map.of(
+                    "p50", percentileMs(all, 0.50), "p90", percentileMs(all, 0.90),
+                    "p99", percentileMs(all, 0.99), "max", percentileMs(all, 1.0)));
+            result.put("statementsPerOperation", count == 0 ? 0.0 : (double) statements / count);
+            operations.put(OPERATIONS[op], result);
+        }
+        report.put("operations", operations);
+        return report;
+    }
+
+    private static double percentileMs(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0.0;
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private List<Long> seedProducts() {
+        User seller = new User();
+        seller.setEmail("loadtest-seller@ecobazaar.test");
+        seller.setPassword("-");
+        seller.setFullName("Load Test Seller");
+        seller.setRole(Role.ADMIN); // admin-created products are verified immediately
+        seller = userRepository.save(seller);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            Product product = productService.createProduct(seller.getId(), "Load test product " + i, "",
+                    5.0 + i % 20, 1_000_000, i % 2 == 0 ? "Home" : "Fashion", null, new ProductCarbonData());
+            ids.add(product.getId());
+        }
+        return ids;
+    }
+
+    private List<Long> seedUsers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            User user = new User();
+            user.setEmail("loadtest-user-" + i + "@ecobazaar.test");
+            user.setPassword("-");
+            user.setFullName("Load Test User " + i);
+            user.setRole(Role.USER);
+            users.add(user);
+        }
+        return userRepository.saveAll(users).stream().map(User::getId).toList();
+    }
+
+    // One of the hot products (so carts overlap on them) plus random others
+    private void fillCart(Long userId, List<Long> productIds, Random random) {
+        int hot = Math.max(1, Math.min(hotProducts, productIds.size()));
+        cartService.addItemToCart(userId, productIds.get(random.nextInt(hot)), 1);
+        for (int i = 1; i < cartLines; i++) {
+            cartService.addItemToCart(userId, productIds.get(random.nextInt(productIds.size())), 1);
+        }
+    }
+
+    private long databaseDeadlocks() {
+        Long deadlocks = jdbcTemplate.queryForObject(
+                "SELECT deadlocks FROM pg_stat_database WHERE datname = current_database()", Long.class);
+        return deadlocks != null ? deadlocks : 0;
+    }
+
+    private static String sqlState(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null) {
+                return sql.getSQLState();
+            }
+        }
+        return null;
+    }
+}
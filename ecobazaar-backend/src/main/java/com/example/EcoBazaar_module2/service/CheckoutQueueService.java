@@ -0,0 +1,180 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.CheckoutTicketDTO;
+import com.example.EcoBazaar_module2.model.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Asynchronous checkout. A request only validates and enqueues a ticket; a fixed
+ * pool of workers takes tickets off the bounded queue one at a time and runs the
+ * normal checkout for each in its own transaction. Under peak load requests wait
+ * in the queue instead of each holding a connection, and a full queue is
+ * rejected up front. Checkouts of one user are serialised by the cart row lock
+ * taken in the checkout itself.
+ *
+ * Tickets live in memory and are evicted a while after they finish; each user
+ * has at most one pending ticket, so a double submit returns the same ticket.
+ */
+@Service
+public class CheckoutQueueService {
+
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException() {
+            super("Checkout queue is full, please retry shortly");
+        }
+    }
+
+    private record CheckoutRequest(String ticketId, Long userId, String address, String phone,
+                                   String paymentMethod) {
+    }
+
+    @Value("${checkout.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${checkout.async.workers:4}")
+    private int workers;
+
+    @Value("${checkout.async.ticket-ttl-minutes:30}")
+    private long ticketTtlMinutes;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    private BlockingQueue<CheckoutRequest> queue;
+    private ExecutorService pool;
+    private volatile boolean running;
+
+    private final Map<String, CheckoutTicketDTO> tickets = new ConcurrentHashMap<>();
+    private final Map<Long, String> pendingByUser = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName("checkout-worker-" + thread.getId());
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            pool.submit(this::drainLoop);
+        }
+    }
+
+    /** Validates the request and queues it; returns the (possibly existing) ticket. */
+    public CheckoutTicketDTO submit(Long userId, String address, String phone, String paymentMethod) {
+        if (cartService.getCartView(userId).getItems().isEmpty()) {
+            throw new RuntimeException("Cart is empty");
+        }
+
+        // The ticket is stored before its id is published, both under the user's map entry,
+        // so a concurrent double submit either sees the pending ticket or creates the only one
+        CheckoutTicketDTO[] created = new CheckoutTicketDTO[1];
+        String ticketId = pendingByUser.compute(userId, (id, existing) -> {
+            CheckoutTicketDTO pending = existing != null ? tickets.get(existing) : null;
+            if (pending != null && pending.getCompletedAt() == null) {
+                return existing;
+            }
+            CheckoutTicketDTO ticket = new CheckoutTicketDTO(UUID.randomUUID().toString(), userId, "QUEUED",
+                    null, null, LocalDateTime.now(), null);
+            tickets.put(ticket.getTicketId(), ticket);
+            created[0] = ticket;
+            return ticket.getTicketId();
+        });
+        CheckoutTicketDTO ticket = created[0];
+        if (ticket == null) {
+            return tickets.get(ticketId);
+        }
+
+        if (!running || !queue.offer(new CheckoutRequest(ticketId, userId, address, phone, paymentMethod))) {
+            tickets.remove(ticketId);
+            pendingByUser.remove(userId, ticketId);
+            throw new QueueFullException();
+        }
+        return ticket;
+    }
+
+    public CheckoutTicketDTO getTicket(String ticketId) {
+        CheckoutTicketDTO ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new RuntimeException("Ticket not found");
+        }
+        return ticket;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                CheckoutRequest request = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (request != null) {
+                    process(request);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void process(CheckoutRequest request) {
+        CheckoutTicketDTO ticket = tickets.get(request.ticketId());
+        if (ticket == null) return;
+        // Tickets are replaced, never mutated, so pollers always see a consistent snapshot
+        tickets.put(ticket.getTicketId(), withStatus(ticket, "PROCESSING", null, null, null));
+        try {
+            Order order = orderService.createOrderFromCart(request.userId(), request.address(),
+                    request.phone(), request.paymentMethod());
+            tickets.put(ticket.getTicketId(), withStatus(ticket, "COMPLETED", order.getId(), null,
+                    LocalDateTime.now()));
+        } catch (Exception e) {
+            tickets.put(ticket.getTicketId(), withStatus(ticket, "FAILED", null, e.getMessage(),
+                    LocalDateTime.now()));
+        } finally {
+            pendingByUser.remove(request.userId(), request.ticketId());
+        }
+    }
+
+    private static CheckoutTicketDTO withStatus(CheckoutTicketDTO ticket, String status, Long orderId,
+                                                String error, LocalDateTime completedAt) {
+        return new CheckoutTicketDTO(ticket.getTicketId(), ticket.getUserId(), status, orderId, error,
+                ticket.getCreatedAt(), completedAt);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictFinishedTickets() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ticketTtlMinutes);
+        tickets.values().removeIf(t -> t.getCompletedAt() != null && t.getCompletedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Workers finish what is already queued, then exit
+        running = false;
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("Checkout workers did not finish; " + queue.size() + " tickets left unprocessed");
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
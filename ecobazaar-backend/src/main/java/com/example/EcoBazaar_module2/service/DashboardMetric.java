@@ -0,0 +1,47 @@
+package com.example.EcoBazaar_module2.service;
+
+/**
+ * Named slots of the per-user metrics vector read by {@link DashboardRuleEngine}.
+ * Achievement and tip rules in dashboard-rules.json refer to these names.
+ */
+public enum DashboardMetric {
+    // Order history
+    TOTAL_ORDERS,
+    TOTAL_ITEMS,
+    GREEN_PURCHASES,
+    GREEN_PERCENTAGE,
+    CARBON_SAVED,
+    ECO_SCORE,
+    TOTAL_SPENT,
+    ORDERS_PER_MONTH,
+    HIGHEST_CATEGORY_AVG_CARBON,
+    HIGHEST_CARBON_CATEGORY(true),
+
+    // Wishlist
+    WISHLIST_SIZE,
+    WISHLIST_CARBON,
+    WISHLIST_LOW_CARBON,
+    WISHLIST_LOW_CARBON_SHORTFALL,
+
+    // Derived by the engine from the achievement pass
+    ACHIEVEMENTS_UNLOCKED,
+    ACHIEVEMENTS_TOTAL,
+    ACHIEVEMENTS_LOCKED,
+    NEXT_CARBON_MILESTONE,
+    CARBON_TO_NEXT_MILESTONE;
+
+    private final boolean label;
+
+    DashboardMetric() {
+        this(false);
+    }
+
+    DashboardMetric(boolean label) {
+        this.label = label;
+    }
+
+    /** Label metrics carry a string (e.g. a category name) instead of a number. */
+    public boolean isLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.AchievementDTO;
+import com.example.EcoBazaar_module2.dto.CarbonTipDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Achievement and tip rules for the user dashboard.
+ *
+ * Rules are plain data in dashboard-rules.json (metric, threshold, icon, priority,
+ * message template). They are compiled once at startup into flat arrays, so a
+ * request costs a single pass over the rules against one {@link MetricVector}.
+ * Adding an achievement or tip is a JSON change only.
+ */
+@Component
+public class DashboardRuleEngine {
+
+    @Value("${dashboard.rules.location:classpath:dashboard-rules.json}")
+    private Resource rulesLocation;
+
+    // Compiled achievements
+    private AchievementRule[] achievements;
+    private int[] achievementMetric;
+    private double[] achievementThreshold;
+    private int[][] achievementsByMetric; // metric ordinal -> achievement indexes
+    private int milestoneMetric = -1;
+
+    // Compiled tips
+    private TipRule[] tips;
+    private int[][] tipConditionMetric;
+    private Op[][] tipConditionOp;
+    private double[][] tipConditionValue;
+    private Template[] tipTemplates;
+    private int[] tipPriority;
+    private int maxTips;
+
+    @PostConstruct
+    public void init() throws IOException {
+        try (InputStream in = rulesLocation.getInputStream()) {
+            compile(new ObjectMapper().readValue(in, RuleSet.class));
+        }
+        System.out.println("✓ Dashboard rules compiled: " + achievements.length
+                + " achievements, " + tips.length + " tips");
+    }
+
+    void compile(RuleSet ruleSet) {
+        achievements = ruleSet.getAchievements().toArray(new AchievementRule[0]);
+        achievementMetric = new int[achievements.length];
+        achievementThreshold = new double[achievements.length];
+        for (int i = 0; i < achievements.length; i++) {
+            achievementMetric[i] = DashboardMetric.valueOf(achievements[i].getMetric()).ordinal();
+            achievementThreshold[i] = achievements[i].getThreshold();
+        }
+        int metricCount = DashboardMetric.values().length;
+        achievementsByMetric = new int[metricCount][];
+        for (int m = 0; m < metricCount; m++) {
+            final int metric = m;
+            achievementsByMetric[m] = IntStream.range(0, achievements.length)
+                    .filter(i -> achievementMetric[i] == metric)
+                    .toArray();
+        }
+        if (ruleSet.getMilestoneMetric() != null) {
+            milestoneMetric = DashboardMetric.valueOf(ruleSet.getMilestoneMetric()).ordinal();
+        }
+
+        tips = ruleSet.getTips().toArray(new TipRule[0]);
+        tipConditionMetric = new int[tips.length][];
+        tipConditionOp = new Op[tips.length][];
+        tipConditionValue = new double[tips.length][];
+        tipTemplates = new Template[tips.length];
+        tipPriority = new int[tips.length];
+        for (int i = 0; i < tips.length; i++) {
+            List<Condition> when = tips[i].getWhen() != null ? tips[i].getWhen() : List.of();
+            tipConditionMetric[i] = new int[when.size()];
+            tipConditionOp[i] = new Op[when.size()];
+            tipConditionValue[i] = new double[when.size()];
+            for (int c = 0; c < when.size(); c++) {
+                tipConditionMetric[i][c] = DashboardMetric.valueOf(when.get(c).getMetric()).ordinal();
+                tipConditionOp[i][c] = Op.valueOf(when.get(c).getOp());
+                tipConditionValue[i][c] = when.get(c).getValue();
+            }
+            tipTemplates[i] = Template.compile(tips[i].getMessage());
+            tipPriority[i] = ruleSet.getPriorities().getOrDefault(tips[i].getPriority(), 0);
+        }
+        maxTips = ruleSet.getMaxTips();
+    }
+
+    /**
+     * Evaluates every achievement and tip against the given metrics in one pass.
+     * Achievement-derived metrics (unlock counts, next milestone) are written back
+     * into the vector before the tips are evaluated.
+     */
+    public Evaluation evaluate(MetricVector metrics) {
+        List<AchievementDTO> achievementList = buildAchievements(metrics, null);
+        return new Evaluation(achievementList, evaluateTips(metrics));
+    }
+
+    /**
+     * Builds the achievement list from persisted unlock state: an achievement is
+     * unlocked iff it has an unlock date, progress comes from the given counters.
+     */
+    public List<AchievementDTO> achievements(MetricVector metrics, Map<String, LocalDateTime> unlockedAt) {
+        return buildAchievements(metrics, unlockedAt);
+    }
+
+    /**
+     * Incremental check after a metrics update. Only rules whose metric changed
+     * between {@code before} and {@code after} are evaluated; a null {@code before}
+     * evaluates every rule (used to bootstrap a user's unlock state).
+     *
+     * @return ids of achievements that are unlocked now but not yet in {@code alreadyUnlocked}
+     */
+    public List<String> newlyUnlocked(MetricVector before, MetricVector after, Set<String> alreadyUnlocked) {
+        List<String> unlocked = new ArrayList<>();
+        for (int m = 0; m < achievementsByMetric.length; m++) {
+            int[] rules = achievementsByMetric[m];
+            if (rules.length == 0) continue;
+            double value = after.get(m);
+            if (before != null && before.get(m) == value) continue;
+
+            for (int i : rules) {
+                if (value >= achievementThreshold[i] && !alreadyUnlocked.contains(achievements[i].getId())) {
+                    unlocked.add(achievements[i].getId());
+                }
+            }
+        }
+        return unlocked;
+    }
+
+    private List<AchievementDTO> buildAchievements(MetricVector metrics, Map<String, LocalDateTime> unlockedAt) {
+        List<AchievementDTO> unlockedList = new ArrayList<>();
+        List<AchievementDTO> lockedList = new ArrayList<>();
+        double nextMilestone = Double.MAX_VALUE;
+
+        for (int i = 0; i < achievements.length; i++) {
+            AchievementRule rule = achievements[i];
+            double value = metrics.get(achievementMetric[i]);
+            LocalDateTime unlockDate = unlockedAt != null ? unlockedAt.get(rule.getId()) : null;
+            boolean unlocked = unlockedAt != null ? unlockDate != null : value >= achievementThreshold[i];
+
+            AchievementDTO dto = new AchievementDTO(rule.getId(), rule.getName(), rule.getDescription(),
+                    rule.getIcon(), unlocked, (int) achievementThreshold[i], (int) value, unlockDate);
+            (unlocked ? unlockedList : lockedList).add(dto);
+
+            if (!unlocked && achievementMetric[i] == milestoneMetric && achievementThreshold[i] < nextMilestone) {
+                nextMilestone = achievementThreshold[i];
+            }
+        }
+
+        // Sort: unlocked first, then by progress
+        unlockedList.sort(BY_PROGRESS);
+        lockedList.sort(BY_PROGRESS);
+        List<AchievementDTO> result = new ArrayList<>(achievements.length);
+        result.addAll(unlockedList);
+        result.addAll(lockedList);
+
+        metrics.set(DashboardMetric.ACHIEVEMENTS_UNLOCKED, unlockedList.size());
+        metrics.set(DashboardMetric.ACHIEVEMENTS_TOTAL, achievements.length);
+        metrics.set(DashboardMetric.ACHIEVEMENTS_LOCKED, lockedList.size());
+        if (milestoneMetric >= 0 && nextMilestone != Double.MAX_VALUE) {
+            metrics.set(DashboardMetric.NEXT_CARBON_MILESTONE, nextMilestone);
+            metrics.set(DashboardMetric.CARBON_TO_NEXT_MILESTONE, nextMilestone - metrics.get(milestoneMetric));
+        } else {
+            metrics.set(DashboardMetric.NEXT_CARBON_MILESTONE, 0);
+            metrics.set(DashboardMetric.CARBON_TO_NEXT_MILESTONE, 0);
+        }
+
+        return result;
+    }
+
+    private List<CarbonTipDTO> evaluateTips(MetricVector metrics) {
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; i < tips.length; i++) {
+            if (matches(i, metrics)) hits.add(i);
+        }
+
+        // Sort by priority; List.sort is stable so definition order breaks ties
+        hits.sort((a, b) -> tipPriority[b] - tipPriority[a]);
+
+        // Only the tips that survive the limit get their message rendered
+        List<CarbonTipDTO> result = new ArrayList<>(Math.min(hits.size(), maxTips));
+        for (int i = 0; i < hits.size() && i < maxTips; i++) {
+            int tip = hits.get(i);
+            TipRule rule = tips[tip];
+            result.add(new CarbonTipDTO(rule.getIcon(), tipTemplates[tip].render(metrics),
+                    rule.getCategory(), rule.getPriority()));
+        }
+        return result;
+    }
+
+    private boolean matches(int tip, MetricVector metrics) {
+        int[] conditionMetric = tipConditionMetric[tip];
+        for (int c = 0; c < conditionMetric.length; c++) {
+            if (!tipConditionOp[tip][c].test(metrics.get(conditionMetric[c]), tipConditionValue[tip][c])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final Comparator<AchievementDTO> BY_PROGRESS = (a, b) -> {
+        double progressA = a.getRequiredValue() > 0 ? (double) a.getCurrentValue() / a.getRequiredValue() : 0;
+        double progressB = b.getRequiredValue() > 0 ? (double) b.getCurrentValue() / b.getRequiredValue() : 0;
+        return Double.compare(progressB, progressA);
+    };
+
+    // ============= EVALUATION RESULT =============
+
+    @Getter
+    @AllArgsConstructor
+    public static class Evaluation {
+        private final List<AchievementDTO> achievements;
+        private final List<CarbonTipDTO> tips;
+    }
+
+    // ============= COMPILED TEMPLATE =============
+
+    /**
+     * Message template with {METRIC} or {METRIC|format} placeholders,
+     * pre-split into literal and metric segments at compile time.
+     */
+    static class Template {
+        private final String[] literals;
+        private final int[] metrics;
+        private final String[] formats;
+
+        private Template(String[] literals, int[] metrics, String[] formats) {
+            this.literals = literals;
+            this.metrics = metrics;
+            this.formats = formats;
+        }
+
+        static Template compile(String message) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> metrics = new ArrayList<>();
+            List<String> formats = new ArrayList<>();
+
+            int pos = 0;
+            while (true) {
+                int open = message.indexOf('{', pos);
+                if (open < 0) break;
+                int close = message.indexOf('}', open);
+                if (close < 0) throw new IllegalArgumentException("Unclosed placeholder in tip: " + message);
+
+                String placeholder = message.substring(open + 1, close);
+                int bar = placeholder.indexOf('|');
+                DashboardMetric metric = DashboardMetric.valueOf(bar < 0 ? placeholder : placeholder.substring(0, bar));
+
+                literals.add(message.substring(pos, open));
+                metrics.add(metric.ordinal());
+                formats.add(metric.isLabel() ? null : (bar < 0 ? "%.0f" : placeholder.substring(bar + 1)));
+                pos = close + 1;
+            }
+            literals.add(message.substring(pos));
+
+            return new Template(
+                    literals.toArray(new String[0]),
+                    metrics.stream().mapToInt(Integer::intValue).toArray(),
+                    formats.toArray(new String[0]));
+        }
+
+        String render(MetricVector vector) {
+            if (metrics.length == 0) return literals[0];
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < metrics.length; i++) {
+                sb.append(literals[i]);
+                if (formats[i] == null) {
+                    sb.append(vector.getLabel(metrics[i]));
+                } else {
+                    sb.append(String.format(formats[i], vector.get(metrics[i])));
+                }
+            }
+            sb.append(literals[metrics.length]);
+            return sb.toString();
+        }
+    }
+
+    enum Op {
+        LT, LTE, GT, GTE, EQ;
+
+        boolean test(double value, double operand) {
+            switch (this) {
+                case LT: return value < operand;
+                case LTE: return value <= operand;
+                case GT: return value > operand;
+                case GTE: return value >= operand;
+                default: return value == operand;
+            }
+        }
+    }
+
+    // ============= RULE DEFINITIONS (JSON) =============
+
+    @Data
+    @NoArgsConstructor
+    public static class RuleSet {
+        private String milestoneMetric;
+        private int maxTips = 8;
+        private Map<String, Integer> priorities = new HashMap<>();
+        private List<AchievementRule> achievements = new ArrayList<>();
+        private List<TipRule> tips = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class AchievementRule {
+        private String id;
+        private String name;
+        private String description;
+        private String icon;
+        private String metric;
+        private double threshold;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class TipRule {
+        private String icon;
+        private String message;
+        private String category;
+        private String priority;
+        private List<Condition> when;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Condition {
+        private String metric;
+        private String op;
+        private double value;
+    }
+}
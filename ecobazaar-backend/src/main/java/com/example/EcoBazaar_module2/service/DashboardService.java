@@ -4,11 +4,12 @@ import com.example.EcoBazaar_module2.dto.*;
 import com.example.EcoBazaar_module2.model.*;
 import com.example.EcoBazaar_module2.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -19,16 +20,19 @@ public class DashboardService {
     private UserRepository userRepository;
 
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderHistoryService orderHistoryService;
 
     @Autowired
     private OrderItemRepository orderItemRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
 
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private ProductRepository productRepository;
 
     @Autowired
     private WishlistRepository wishlistRepository;
@@ -36,6 +40,21 @@ public class DashboardService {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private DashboardRuleEngine dashboardRuleEngine;
+
+    @Autowired
+    private EcoPercentileService ecoPercentileService;
+
+    @Autowired
+    private SellerRevenueService sellerRevenueService;
+
+    @Autowired
+    private TopSellerService topSellerService;
+
+    @Autowired
+    private RecentActivityFeed recentActivityFeed;
+
     // ============= ENHANCED USER DASHBOARD =============
     public UserDashboardDTO getUserDashboard(Long userId) {
         User user = userRepository.findById(userId)
@@ -43,113 +62,61 @@ public class DashboardService {
 
         UserDashboardDTO dashboard = new UserDashboardDTO();
 
-        List<Order> orders = orderRepository.findByUserId(userId);
+        List<Order> orders = orderHistoryService.findByUserId(userId);
         List<Wishlist> wishlistItems = wishlistRepository.findByUserId(userId);
-        List<Review> userReviews = reviewRepository.findByUserIdOrderByCreatedAtDesc(userId);
+
+        // Flatten the order history once and aggregate it in a single pass
+        OrderHistoryMetrics metrics = OrderHistoryMetrics.aggregate(OrderLineColumns.of(orders));
 
         // Enhanced Stats with more metrics
-        dashboard.setStats(calculateEnhancedUserStats(orders, wishlistItems, userReviews));
+        dashboard.setStats(calculateEnhancedUserStats(metrics));
+        dashboard.getStats().setEcoScorePercentile(
+                ecoPercentileService.ecoScorePercentile(dashboard.getStats().getEcoScore()));
 
         // Recent Orders (last 10 instead of 5)
         dashboard.setRecentOrders(getRecentOrders(orders, 10));
 
-        // Enhanced Achievements with progress tracking
-        dashboard.setAchievements(calculateEnhancedAchievements(dashboard.getStats(), orders));
-
-        // Personalized Tips based on shopping behavior
-        dashboard.setPersonalizedTips(generateEnhancedPersonalizedTips(orders, dashboard.getStats(), wishlistItems));
+        // Achievements and personalized tips, evaluated together in one rule pass
+        DashboardRuleEngine.Evaluation rules = dashboardRuleEngine.evaluate(
+                buildMetricVector(metrics, dashboard.getStats(), wishlistItems));
+        dashboard.setAchievements(rules.getAchievements());
+        dashboard.setPersonalizedTips(rules.getTips());
 
         // Enhanced Carbon Trend with predictions
         dashboard.setCarbonTrend(calculateEnhancedCarbonTrend(orders));
 
         // Detailed Category Breakdown with insights
-        dashboard.setCategoryBreakdown(calculateDetailedCategoryBreakdown(orders));
+        dashboard.setCategoryBreakdown(metrics.getCategoryBreakdown());
 
         // Eco Rating Distribution with statistics
-        dashboard.setEcoRatingDistribution(calculateDetailedEcoRatingDistribution(orders));
+        dashboard.setEcoRatingDistribution(metrics.getEcoRatingDistribution());
 
         return dashboard;
     }
 
-    private UserStatsDTO calculateEnhancedUserStats(List<Order> orders, List<Wishlist> wishlistItems, List<Review> reviews) {
+    private UserStatsDTO calculateEnhancedUserStats(OrderHistoryMetrics metrics) {
         UserStatsDTO stats = new UserStatsDTO();
 
         // Basic order metrics
-        int totalOrders = orders.size();
-        double totalSpent = orders.stream()
-                .mapToDouble(Order::getTotalAmount)
-                .sum();
-
-        int totalItems = orders.stream()
-                .mapToInt(o -> o.getItems().size())
-                .sum();
-
-        double totalCarbon = orders.stream()
-                .mapToDouble(Order::getTotalCarbonFootprint)
-                .sum();
+        int totalOrders = metrics.getTotalOrders();
+        double totalSpent = metrics.getTotalSpent();
+        int totalItems = metrics.getTotalLines();
+        double totalCarbon = metrics.getTotalCarbon();
 
         // Enhanced metrics
-        int greenPurchases = 0;
-        int premiumEcoPurchases = 0; // A+ rated products
-        Map<String, Integer> categoryPurchases = new HashMap<>();
-        double totalProductValue = 0;
-        int repeatedCategories = 0;
-
-        for (Order order : orders) {
-            for (OrderItem item : order.getItems()) {
-                double itemCarbon = item.getCarbonSnapshot();
-
-                // Count green purchases (< 2kg)
-                if (itemCarbon < 2.0) {
-                    greenPurchases++;
-                }
-
-                // Count premium eco purchases (< 1kg)
-                if (itemCarbon < 1.0) {
-                    premiumEcoPurchases++;
-                }
-
-                // Track category frequency
-                String category = item.getProduct().getCategory();
-                categoryPurchases.merge(category, 1, Integer::sum);
-
-                totalProductValue += item.getPriceSnapshot() * item.getQuantity();
-            }
-        }
-
-        // Count categories purchased more than once
-        repeatedCategories = (int) categoryPurchases.values().stream()
-                .filter(count -> count > 1)
-                .count();
+        int greenPurchases = metrics.getGreenLines();
+        int premiumEcoPurchases = metrics.getPremiumEcoLines(); // A+ rated products
+        int repeatedCategories = metrics.getRepeatedCategories();
 
         // Calculate carbon metrics
-        double baselineCarbon = totalOrders * 10.0; // Assume 10kg per order baseline
-        double carbonSaved = Math.max(0, baselineCarbon - totalCarbon);
-
-        // Calculate average carbon per order
-        double avgCarbonPerOrder = totalOrders > 0 ? totalCarbon / totalOrders : 0;
-
-        // Calculate average order value
-        double avgOrderValue = totalOrders > 0 ? totalSpent / totalOrders : 0;
-
-        // Calculate eco efficiency score (lower is better)
-        double ecoEfficiency = totalSpent > 0 ? totalCarbon / totalSpent : 0;
+        double carbonSaved = EcoScore.carbonSaved(totalOrders, totalCarbon);
 
         // Enhanced eco score calculation
-        int ecoScore = calculateAdvancedEcoScore(
-                carbonSaved,
-                greenPurchases,
-                premiumEcoPurchases,
-                totalOrders,
-                repeatedCategories,
-                ecoEfficiency
-        );
+        int ecoScore = EcoScore.calculate(totalOrders, totalSpent, totalCarbon,
+                greenPurchases, premiumEcoPurchases, repeatedCategories);
 
         // Determine badge and rank
-        String badge = determineBadge(ecoScore);
-
-        // Calculate percentage of green purchases
-        double greenPurchasePercentage = totalItems > 0 ? (greenPurchases * 100.0 / totalItems) : 0;
+        String badge = EcoScore.badge(ecoScore);
 
         // Set all stats
         stats.setTotalOrders(totalOrders);
@@ -164,46 +131,6 @@ public class DashboardService {
         return stats;
     }
 
-    private int calculateAdvancedEcoScore(double carbonSaved, int greenPurchases,
-                                          int premiumEcoPurchases, int totalOrders,
-                                          int repeatedCategories, double ecoEfficiency) {
-        // Multi-factor eco score calculation
-        int score = 0;
-
-        // Carbon savings (up to 500 points)
-        score += Math.min(500, (int)(carbonSaved * 10));
-
-        // Green purchases (10 points each)
-        score += greenPurchases * 10;
-
-        // Premium eco purchases (20 points each)
-        score += premiumEcoPurchases * 20;
-
-        // Loyalty bonus for repeat category purchases (5 points each)
-        score += repeatedCategories * 5;
-
-        // Order frequency bonus (5 points per order)
-        score += totalOrders * 5;
-
-        // Efficiency bonus (inverse of eco efficiency, up to 200 points)
-        if (ecoEfficiency > 0 && ecoEfficiency < 1) {
-            score += Math.min(200, (int)(100 / ecoEfficiency));
-        }
-
-        return Math.max(0, score);
-    }
-
-    private String determineBadge(int ecoScore) {
-        if (ecoScore >= 2000) return "🏆 Eco Legend";
-        else if (ecoScore >= 1500) return "🌟 Planet Hero";
-        else if (ecoScore >= 1000) return "⭐ Sustainability Master";
-        else if (ecoScore >= 750) return "🦸 Eco Warrior";
-        else if (ecoScore >= 500) return "💚 Low Carbon Leader";
-        else if (ecoScore >= 250) return "🌱 Eco Enthusiast";
-        else if (ecoScore >= 100) return "🌿 Eco Starter";
-        else return "🔰 Green Beginner";
-    }
-
     private List<RecentOrderDTO> getRecentOrders(List<Order> orders, int limit) {
         return orders.stream()
                 .sorted((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()))
@@ -219,386 +146,44 @@ public class DashboardService {
                 .collect(Collectors.toList());
     }
 
-    private List<AchievementDTO> calculateEnhancedAchievements(UserStatsDTO stats, List<Order> orders) {
-        List<AchievementDTO> achievements = new ArrayList<>();
-
-        // First order milestone
-        achievements.add(new AchievementDTO(
-                "first_order",
-                "🎯 First Step",
-                "Place your first eco-friendly order",
-                "🎯",
-                stats.getTotalOrders() >= 1,
-                1,
-                stats.getTotalOrders()
-        ));
-
-        // Green shopping milestones
-        achievements.add(new AchievementDTO(
-                "green_shopper_5",
-                "🛍️ Green Shopper",
-                "Make 5 green purchases (products with low carbon footprint)",
-                "🛍️",
-                stats.getGreenPurchases() >= 5,
-                5,
-                stats.getGreenPurchases()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "green_shopper_25",
-                "🌟 Green Shopping Pro",
-                "Make 25 green purchases",
-                "🌟",
-                stats.getGreenPurchases() >= 25,
-                25,
-                stats.getGreenPurchases()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "green_shopper_50",
-                "💎 Green Shopping Master",
-                "Make 50 green purchases",
-                "💎",
-                stats.getGreenPurchases() >= 50,
-                50,
-                stats.getGreenPurchases()
-        ));
-
-        // Carbon savings milestones
-        achievements.add(new AchievementDTO(
-                "carbon_saver_10",
-                "♻️ Carbon Saver",
-                "Save 10kg of CO2 emissions",
-                "♻️",
-                stats.getCarbonSaved() >= 10,
-                10,
-                stats.getCarbonSaved().intValue()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "carbon_saver_50",
-                "🌍 Planet Protector",
-                "Save 50kg of CO2 emissions",
-                "🌍",
-                stats.getCarbonSaved() >= 50,
-                50,
-                stats.getCarbonSaved().intValue()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "carbon_saver_100",
-                "🌎 Climate Champion",
-                "Save 100kg of CO2 emissions",
-                "🌎",
-                stats.getCarbonSaved() >= 100,
-                100,
-                stats.getCarbonSaved().intValue()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "carbon_saver_250",
-                "🌏 Carbon Hero",
-                "Save 250kg of CO2 emissions",
-                "🌏",
-                stats.getCarbonSaved() >= 250,
-                250,
-                stats.getCarbonSaved().intValue()
-        ));
-
-        // Eco score milestones
-        achievements.add(new AchievementDTO(
-                "eco_starter",
-                "🌿 Eco Starter",
-                "Reach 100 eco points",
-                "🌿",
-                stats.getEcoScore() >= 100,
-                100,
-                stats.getEcoScore()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "eco_enthusiast",
-                "💚 Eco Enthusiast",
-                "Reach 500 eco points",
-                "💚",
-                stats.getEcoScore() >= 500,
-                500,
-                stats.getEcoScore()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "eco_warrior",
-                "🦸 Eco Warrior",
-                "Reach 1000 eco points",
-                "🦸",
-                stats.getEcoScore() >= 1000,
-                1000,
-                stats.getEcoScore()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "eco_legend",
-                "🏆 Eco Legend",
-                "Reach 2000 eco points",
-                "🏆",
-                stats.getEcoScore() >= 2000,
-                2000,
-                stats.getEcoScore()
-        ));
-
-        // Order milestones
-        achievements.add(new AchievementDTO(
-                "regular_customer",
-                "📦 Regular Customer",
-                "Place 10 orders",
-                "📦",
-                stats.getTotalOrders() >= 10,
-                10,
-                stats.getTotalOrders()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "loyal_customer",
-                "⭐ Loyal Customer",
-                "Place 25 orders",
-                "⭐",
-                stats.getTotalOrders() >= 25,
-                25,
-                stats.getTotalOrders()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "vip_customer",
-                "👑 VIP Customer",
-                "Place 50 orders",
-                "👑",
-                stats.getTotalOrders() >= 50,
-                50,
-                stats.getTotalOrders()
-        ));
-
-        // Spending milestones
-        achievements.add(new AchievementDTO(
-                "spender_100",
-                "💰 Eco Investor",
-                "Spend $100 on eco products",
-                "💰",
-                stats.getTotalSpent() >= 100,
-                100,
-                stats.getTotalSpent().intValue()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "spender_500",
-                "💵 Eco Patron",
-                "Spend $500 on eco products",
-                "💵",
-                stats.getTotalSpent() >= 500,
-                500,
-                stats.getTotalSpent().intValue()
-        ));
-
-        achievements.add(new AchievementDTO(
-                "spender_1000",
-                "💎 Eco Advocate",
-                "Spend $1000 on eco products",
-                "💎",
-                stats.getTotalSpent() >= 1000,
-                1000,
-                stats.getTotalSpent().intValue()
-        ));
-
-        // Sort: unlocked first, then by progress
-        achievements.sort((a, b) -> {
-            if (a.isUnlocked() != b.isUnlocked()) {
-                return a.isUnlocked() ? -1 : 1;
-            }
-            double progressA = a.getRequiredValue() > 0 ? (double) a.getCurrentValue() / a.getRequiredValue() : 0;
-            double progressB = b.getRequiredValue() > 0 ? (double) b.getCurrentValue() / b.getRequiredValue() : 0;
-            return Double.compare(progressB, progressA);
-        });
-
-        return achievements;
-    }
-
-    private List<CarbonTipDTO> generateEnhancedPersonalizedTips(List<Order> orders, UserStatsDTO stats, List<Wishlist> wishlistItems) {
-        List<CarbonTipDTO> tips = new ArrayList<>();
+    private MetricVector buildMetricVector(OrderHistoryMetrics metrics, UserStatsDTO stats, List<Wishlist> wishlistItems) {
+        MetricVector vector = new MetricVector()
+                .set(DashboardMetric.TOTAL_ORDERS, stats.getTotalOrders())
+                .set(DashboardMetric.TOTAL_ITEMS, stats.getTotalItemsPurchased())
+                .set(DashboardMetric.GREEN_PURCHASES, stats.getGreenPurchases())
+                .set(DashboardMetric.CARBON_SAVED, stats.getCarbonSaved())
+                .set(DashboardMetric.ECO_SCORE, stats.getEcoScore())
+                .set(DashboardMetric.TOTAL_SPENT, stats.getTotalSpent());
 
-        // Analyze shopping patterns
-        Map<String, Integer> categoryFrequency = new HashMap<>();
-        Map<String, Double> categoryCarbonAvg = new HashMap<>();
-        Map<String, Integer> categoryCount = new HashMap<>();
-
-        for (Order order : orders) {
-            for (OrderItem item : order.getItems()) {
-                String category = item.getProduct().getCategory();
-                double carbon = item.getCarbonSnapshot();
-
-                categoryFrequency.merge(category, 1, Integer::sum);
-                categoryCarbonAvg.merge(category, carbon, Double::sum);
-                categoryCount.merge(category, 1, Integer::sum);
-            }
-        }
-
-        // Calculate average carbon per category
-        for (String category : categoryCarbonAvg.keySet()) {
-            double total = categoryCarbonAvg.get(category);
-            int count = categoryCount.get(category);
-            categoryCarbonAvg.put(category, total / count);
-        }
-
-        // Beginner tips
-        if (stats.getTotalOrders() < 3) {
-            tips.add(new CarbonTipDTO(
-                    "🌟",
-                    "Welcome to eco-friendly shopping! Start by looking for A+ rated products to maximize your impact.",
-                    "GETTING_STARTED",
-                    "HIGH"
-            ));
-        }
-
-        // Green purchase encouragement
         if (stats.getTotalItemsPurchased() > 0) {
-            double greenPercentage = (stats.getGreenPurchases() * 100.0) / stats.getTotalItemsPurchased();
-            if (greenPercentage < 30) {
-                tips.add(new CarbonTipDTO(
-                        "🌿",
-                        String.format("Only %.0f%% of your purchases are 'green'. Try choosing products with carbon footprint under 2kg!", greenPercentage),
-                        "SHOPPING",
-                        "HIGH"
-                ));
-            } else if (greenPercentage < 60) {
-                tips.add(new CarbonTipDTO(
-                        "💚",
-                        String.format("Great job! %.0f%% of your purchases are green. Keep it up!", greenPercentage),
-                        "ENCOURAGEMENT",
-                        "MEDIUM"
-                ));
-            } else {
-                tips.add(new CarbonTipDTO(
-                        "⭐",
-                        String.format("Excellent! %.0f%% of your purchases are eco-friendly. You're a sustainability champion!", greenPercentage),
-                        "CELEBRATION",
-                        "LOW"
-                ));
-            }
-        }
-
-        // Category-specific tips
-        String highestCarbonCategory = null;
-        double highestAvgCarbon = 0;
-
-        for (Map.Entry<String, Double> entry : categoryCarbonAvg.entrySet()) {
-            if (entry.getValue() > highestAvgCarbon) {
-                highestAvgCarbon = entry.getValue();
-                highestCarbonCategory = entry.getKey();
-            }
+            vector.set(DashboardMetric.GREEN_PERCENTAGE,
+                    (stats.getGreenPurchases() * 100.0) / stats.getTotalItemsPurchased());
         }
 
-        if (highestCarbonCategory != null && highestAvgCarbon > 5) {
-            tips.add(new CarbonTipDTO(
-                    "📊",
-                    String.format("Your %s purchases have high carbon footprint (%.1fkg avg). Consider eco-alternatives in this category!",
-                            highestCarbonCategory, highestAvgCarbon),
-                    "OPTIMIZATION",
-                    "HIGH"
-            ));
+        long daysBetween = metrics.getOrderSpanDays();
+        if (daysBetween > 0) {
+            vector.set(DashboardMetric.ORDERS_PER_MONTH, (metrics.getTotalOrders() * 30.0) / daysBetween);
         }
 
-        // Wishlist insights
-        if (!wishlistItems.isEmpty()) {
-            double wishlistTotalCarbon = wishlistItems.stream()
-                    .mapToDouble(w -> w.getProduct().getTotalCarbonFootprint())
-                    .sum();
-
-            long lowCarbonInWishlist = wishlistItems.stream()
-                    .filter(w -> w.getProduct().getTotalCarbonFootprint() < 2.0)
-                    .count();
-
-            if (lowCarbonInWishlist < wishlistItems.size() / 2) {
-                tips.add(new CarbonTipDTO(
-                        "❤️",
-                        String.format("Your wishlist contains %.1fkg CO2e. Consider prioritizing the %d low-carbon items!",
-                                wishlistTotalCarbon, lowCarbonInWishlist),
-                        "WISHLIST",
-                        "MEDIUM"
-                ));
-            }
+        int highestCategory = metrics.getHighestAvgCarbonCategory();
+        if (highestCategory >= 0 && metrics.getCategoryName(highestCategory) != null) {
+            vector.setLabel(DashboardMetric.HIGHEST_CARBON_CATEGORY, metrics.getCategoryName(highestCategory));
+            vector.set(DashboardMetric.HIGHEST_CATEGORY_AVG_CARBON, metrics.getCategoryAvgCarbon(highestCategory));
         }
 
-        // Order frequency tip
-        if (orders.size() >= 2) {
-            LocalDateTime firstOrder = orders.stream()
-                    .map(Order::getCreatedAt)
-                    .min(LocalDateTime::compareTo)
-                    .orElse(LocalDateTime.now());
-
-            LocalDateTime lastOrder = orders.stream()
-                    .map(Order::getCreatedAt)
-                    .max(LocalDateTime::compareTo)
-                    .orElse(LocalDateTime.now());
-
-            long daysBetween = ChronoUnit.DAYS.between(firstOrder, lastOrder);
-            if (daysBetween > 0) {
-                double ordersPerMonth = (orders.size() * 30.0) / daysBetween;
-                if (ordersPerMonth > 4) {
-                    tips.add(new CarbonTipDTO(
-                            "📦",
-                            "Consider consolidating your orders to reduce packaging waste and transportation emissions!",
-                            "OPTIMIZATION",
-                            "MEDIUM"
-                    ));
-                }
-            }
+        double wishlistCarbon = 0;
+        int lowCarbonInWishlist = 0;
+        for (Wishlist w : wishlistItems) {
+            double carbon = w.getProduct().getTotalCarbonFootprint();
+            wishlistCarbon += carbon;
+            if (carbon < OrderHistoryMetrics.GREEN_CARBON_THRESHOLD) lowCarbonInWishlist++;
         }
+        vector.set(DashboardMetric.WISHLIST_SIZE, wishlistItems.size())
+                .set(DashboardMetric.WISHLIST_CARBON, wishlistCarbon)
+                .set(DashboardMetric.WISHLIST_LOW_CARBON, lowCarbonInWishlist)
+                .set(DashboardMetric.WISHLIST_LOW_CARBON_SHORTFALL, wishlistItems.size() / 2 - lowCarbonInWishlist);
 
-        // Carbon savings milestone tip
-        int nextMilestone = 0;
-        if (stats.getCarbonSaved() < 10) nextMilestone = 10;
-        else if (stats.getCarbonSaved() < 50) nextMilestone = 50;
-        else if (stats.getCarbonSaved() < 100) nextMilestone = 100;
-        else if (stats.getCarbonSaved() < 250) nextMilestone = 250;
-
-        if (nextMilestone > 0) {
-            double remaining = nextMilestone - stats.getCarbonSaved();
-            tips.add(new CarbonTipDTO(
-                    "🎯",
-                    String.format("You're %.1fkg away from saving %dkg CO2e! Keep making eco-friendly choices!",
-                            remaining, nextMilestone),
-                    "MILESTONE",
-                    "MEDIUM"
-            ));
-        }
-
-        // Achievement progress tip
-        int unlockedAchievements = (int) calculateEnhancedAchievements(stats, orders).stream()
-                .filter(AchievementDTO::isUnlocked)
-                .count();
-        int totalAchievements = calculateEnhancedAchievements(stats, orders).size();
-
-        if (unlockedAchievements < totalAchievements) {
-            tips.add(new CarbonTipDTO(
-                    "🏆",
-                    String.format("You've unlocked %d/%d achievements! Check your dashboard to see what's next!",
-                            unlockedAchievements, totalAchievements),
-                    "GAMIFICATION",
-                    "LOW"
-            ));
-        }
-
-        // Motivational tips
-        tips.add(new CarbonTipDTO(
-                "💚",
-                "Every eco-friendly purchase helps reduce global carbon emissions. Thank you for making a difference!",
-                "MOTIVATION",
-                "LOW"
-        ));
-
-        // Sort by priority
-        Map<String, Integer> priorityMap = Map.of("HIGH", 3, "MEDIUM", 2, "LOW", 1);
-        tips.sort((a, b) -> priorityMap.getOrDefault(b.getPriority(), 0) - priorityMap.getOrDefault(a.getPriority(), 0));
-
-        return tips.stream().limit(8).collect(Collectors.toList());
+        return vector;
     }
 
     private CarbonTrendDTO calculateEnhancedCarbonTrend(List<Order> orders) {
@@ -646,58 +231,12 @@ public class DashboardService {
         return trend;
     }
 
-    private Map<String, Double> calculateDetailedCategoryBreakdown(List<Order> orders) {
-        Map<String, Double> categoryCarbon = new HashMap<>();
-        Map<String, Double> categorySpending = new HashMap<>();
-        Map<String, Integer> categoryCount = new HashMap<>();
-
-        for (Order order : orders) {
-            for (OrderItem item : order.getItems()) {
-                String category = item.getProduct().getCategory();
-                double carbon = item.getCarbonSnapshot() * item.getQuantity();
-                double spending = item.getPriceSnapshot() * item.getQuantity();
-
-                categoryCarbon.merge(category, carbon, Double::sum);
-                categorySpending.merge(category, spending, Double::sum);
-                categoryCount.merge(category, 1, Integer::sum);
-            }
-        }
-
-        // Round values
-        for (String key : categoryCarbon.keySet()) {
-            categoryCarbon.put(key, Math.round(categoryCarbon.get(key) * 100.0) / 100.0);
-        }
-
-        return categoryCarbon;
-    }
-
-    private Map<String, Integer> calculateDetailedEcoRatingDistribution(List<Order> orders) {
-        Map<String, Integer> distribution = new LinkedHashMap<>();
-        distribution.put("A+", 0);
-        distribution.put("A", 0);
-        distribution.put("B", 0);
-        distribution.put("C", 0);
-        distribution.put("D", 0);
-
-        for (Order order : orders) {
-            for (OrderItem item : order.getItems()) {
-                double carbon = item.getCarbonSnapshot();
-                String rating;
-
-                if (carbon < 1.0) rating = "A+";
-                else if (carbon < 2.0) rating = "A";
-                else if (carbon < 5.0) rating = "B";
-                else if (carbon < 10.0) rating = "C";
-                else rating = "D";
-
-                distribution.merge(rating, item.getQuantity(), Integer::sum);
-            }
-        }
-
-        return distribution;
+    // ============= SELLER DASHBOARD (UNCHANGED) =============
+    // Sales per product of one seller, hot and archived lines summed
+    private record ProductSales(Long productId, String name, String category, long units, double revenue,
+                                long lines) {
     }
 
-    // ============= SELLER DASHBOARD (UNCHANGED) =============
     public SellerDashboardDTO getSellerDashboard(Long sellerId) {
         User seller = userRepository.findById(sellerId)
                 .orElseThrow(() -> new RuntimeException("Seller not found"));
@@ -705,27 +244,43 @@ public class DashboardService {
         SellerDashboardDTO dashboard = new SellerDashboardDTO();
 
         List<Product> products = productRepository.findBySellerId(sellerId);
-        List<Order> allOrders = orderRepository.findAll();
-
-        List<OrderItem> sellerOrderItems = new ArrayList<>();
-        for (Order order : allOrders) {
-            for (OrderItem item : order.getItems()) {
-                if (item.getProduct().getSeller().getId().equals(sellerId)) {
-                    sellerOrderItems.add(item);
-                }
-            }
-        }
+        Map<Long, Product> productsById = products.stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+        Collection<ProductSales> sales = sumSellerSales(sellerId, productsById);
 
-        dashboard.setStats(calculateSellerStats(products, sellerOrderItems));
-        dashboard.setTopProducts(getTopProducts(sellerOrderItems, 5));
-        dashboard.setRecentOrders(getSellerRecentOrders(sellerOrderItems, 5));
-        dashboard.setSalesByCategory(calculateSalesByCategory(sellerOrderItems));
-        dashboard.setRevenueBreakdown(calculateRevenueBreakdown(sellerOrderItems));
+        dashboard.setStats(calculateSellerStats(products, sales));
+        dashboard.setTopProducts(getTopProducts(sales, productsById, 5));
+        dashboard.setRecentOrders(getSellerRecentOrders(sellerId, 5));
+        dashboard.setSalesByCategory(calculateSalesByCategory(sales));
+        dashboard.setRevenueBreakdown(sellerRevenueService.getRevenueBreakdown(sellerId));
 
         return dashboard;
     }
 
-    private SellerStatsDTO calculateSellerStats(List<Product> products, List<OrderItem> orderItems) {
+    // Aggregated in the database; products deleted since archiving keep their snapshot name and category
+    private Collection<ProductSales> sumSellerSales(Long sellerId, Map<Long, Product> productsById) {
+        Map<Long, ProductSales> sales = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumSalesByProductForSeller(sellerId)) {
+            Product product = productsById.get((Long) row[0]);
+            sales.put((Long) row[0], new ProductSales((Long) row[0], product != null ? product.getName() : null,
+                    product != null ? product.getCategory() : null, ((Number) row[1]).longValue(),
+                    ((Number) row[2]).doubleValue(), ((Number) row[3]).longValue()));
+        }
+        for (Object[] row : archivedOrderRepository.sumSalesByProductForSeller(sellerId)) {
+            Long productId = row[0] != null ? ((Number) row[0]).longValue() : null;
+            Product product = productsById.get(productId);
+            ProductSales archived = new ProductSales(productId,
+                    product != null ? product.getName() : (String) row[1],
+                    product != null ? product.getCategory() : (String) row[2],
+                    ((Number) row[3]).longValue(), ((Number) row[4]).doubleValue(), ((Number) row[5]).longValue());
+            sales.merge(productId, archived, (hot, old) -> new ProductSales(hot.productId(), hot.name(),
+                    hot.category(), hot.units() + old.units(), hot.revenue() + old.revenue(),
+                    hot.lines() + old.lines()));
+        }
+        return sales.values();
+    }
+
+    private SellerStatsDTO calculateSellerStats(List<Product> products, Collection<ProductSales> sales) {
         SellerStatsDTO stats = new SellerStatsDTO();
 
         stats.setTotalProducts(products.size());
@@ -733,10 +288,10 @@ public class DashboardService {
         stats.setPendingProducts((int) products.stream().filter(p -> !p.isVerified()).count());
         stats.setVerifiedProducts((int) products.stream().filter(Product::isVerified).count());
 
-        stats.setTotalSales(orderItems.size());
+        stats.setTotalSales((int) sales.stream().mapToLong(ProductSales::lines).sum());
 
-        double totalRevenue = orderItems.stream()
-                .mapToDouble(item -> item.getPriceSnapshot() * item.getQuantity())
+        double totalRevenue = sales.stream()
+                .mapToDouble(ProductSales::revenue)
                 .sum();
         stats.setTotalRevenue(totalRevenue);
 
@@ -749,77 +304,55 @@ public class DashboardService {
         return stats;
     }
 
-    private List<ProductPerformanceDTO> getTopProducts(List<OrderItem> orderItems, int limit) {
-        Map<Long, ProductPerformanceDTO> productMap = new HashMap<>();
-
-        for (OrderItem item : orderItems) {
-            Product product = item.getProduct();
-            ProductPerformanceDTO perf = productMap.getOrDefault(product.getId(),
-                    new ProductPerformanceDTO(product.getId(), product.getName(), 0, 0.0,
-                            product.getTotalCarbonFootprint(), product.getEcoRating()));
-
-            perf.setUnitsSold(perf.getUnitsSold() + item.getQuantity());
-            perf.setRevenue(perf.getRevenue() + (item.getPriceSnapshot() * item.getQuantity()));
-
-            productMap.put(product.getId(), perf);
-        }
-
-        return productMap.values().stream()
-                .sorted((p1, p2) -> Double.compare(p2.getRevenue(), p1.getRevenue()))
+    private List<ProductPerformanceDTO> getTopProducts(Collection<ProductSales> sales,
+                                                       Map<Long, Product> productsById, int limit) {
+        return sales.stream()
+                .sorted((p1, p2) -> Double.compare(p2.revenue(), p1.revenue()))
                 .limit(limit)
+                .map(s -> {
+                    Product product = productsById.get(s.productId());
+                    // Deleted products have no carbon data left, as before
+                    double carbon = product != null ? product.getTotalCarbonFootprint() : 0.0;
+                    return new ProductPerformanceDTO(s.productId(), s.name(), (int) s.units(), s.revenue(),
+                            carbon, Product.ecoRatingOf(carbon));
+                })
                 .collect(Collectors.toList());
     }
 
-    private List<RecentOrderDTO> getSellerRecentOrders(List<OrderItem> orderItems, int limit) {
-        return orderItems.stream()
-                .map(OrderItem::getOrder)
-                .distinct()
-                .sorted((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()))
+    private List<RecentOrderDTO> getSellerRecentOrders(Long sellerId, int limit) {
+        List<RecentOrderDTO> recent = new ArrayList<>();
+        for (Object[] row : orderRepository.findRecentForSeller(sellerId, PageRequest.of(0, limit))) {
+            recent.add(recentOrder(row, (LocalDateTime) row[1]));
+        }
+        for (Object[] row : archivedOrderRepository.findRecentForSeller(sellerId, limit)) {
+            recent.add(recentOrder(row, ((Timestamp) row[1]).toLocalDateTime()));
+        }
+        return recent.stream()
+                .sorted((o1, o2) -> o2.getOrderDate().compareTo(o1.getOrderDate()))
                 .limit(limit)
-                .map(order -> new RecentOrderDTO(
-                        order.getId(),
-                        order.getCreatedAt(),
-                        order.getItems().size(),
-                        order.getTotalAmount(),
-                        order.getTotalCarbonFootprint(),
-                        order.getStatus().toString()
-                ))
                 .collect(Collectors.toList());
     }
 
-    private Map<String, Double> calculateSalesByCategory(List<OrderItem> orderItems) {
+    private static RecentOrderDTO recentOrder(Object[] row, LocalDateTime createdAt) {
+        return new RecentOrderDTO(((Number) row[0]).longValue(), createdAt, ((Number) row[2]).intValue(),
+                ((Number) row[3]).doubleValue(), ((Number) row[4]).doubleValue(), row[5].toString());
+    }
+
+    private Map<String, Double> calculateSalesByCategory(Collection<ProductSales> sales) {
         Map<String, Double> salesByCategory = new HashMap<>();
 
-        for (OrderItem item : orderItems) {
-            String category = item.getProduct().getCategory();
-            salesByCategory.merge(category,
-                    item.getPriceSnapshot() * item.getQuantity(),
-                    Double::sum);
+        for (ProductSales productSales : sales) {
+            salesByCategory.merge(productSales.category(), productSales.revenue(), Double::sum);
         }
 
         return salesByCategory;
     }
 
-    private RevenueBreakdownDTO calculateRevenueBreakdown(List<OrderItem> orderItems) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime todayStart = now.toLocalDate().atStartOfDay();
-        LocalDateTime weekStart = now.minusWeeks(1);
-        LocalDateTime monthStart = now.minusMonths(1);
-
-        double todayRevenue = 0, weekRevenue = 0, monthRevenue = 0, totalRevenue = 0;
-
-        for (OrderItem item : orderItems) {
-            double revenue = item.getPriceSnapshot() * item.getQuantity();
-            LocalDateTime orderDate = item.getOrder().getCreatedAt();
-
-            totalRevenue += revenue;
-
-            if (orderDate.isAfter(todayStart)) todayRevenue += revenue;
-            if (orderDate.isAfter(weekStart)) weekRevenue += revenue;
-            if (orderDate.isAfter(monthStart)) monthRevenue += revenue;
+    public RevenueBreakdownDTO getRevenueBreakdown(Long sellerId) {
+        if (!userRepository.existsById(sellerId)) {
+            throw new RuntimeException("Seller not found");
         }
-
-        return new RevenueBreakdownDTO(todayRevenue, weekRevenue, monthRevenue, totalRevenue);
+        return sellerRevenueService.getRevenueBreakdown(sellerId);
     }
 
     // ============= ADMIN DASHBOARD (UNCHANGED) =============
@@ -828,39 +361,38 @@ public class DashboardService {
 
         List<User> allUsers = userRepository.findAll();
         List<Product> allProducts = productRepository.findAll();
-        List<Order> allOrders = orderRepository.findAll();
-        List<AuditLog> recentAudits = auditLogRepository.findAll();
-
-        dashboard.setPlatformStats(calculatePlatformStats(allUsers, allProducts, allOrders));
+        // [order count, amount, carbon] over hot and archived orders, summed in the database
+        Object[] hot = orderRepository.sumTotals().get(0);
+        Object[] archived = archivedOrderRepository.sumTotals().get(0);
+        long orderCount = ((Number) hot[0]).longValue() + ((Number) archived[0]).longValue();
+        double orderAmount = ((Number) hot[1]).doubleValue() + ((Number) archived[1]).doubleValue();
+        double orderCarbon = ((Number) hot[2]).doubleValue() + ((Number) archived[2]).doubleValue();
+
+        dashboard.setPlatformStats(calculatePlatformStats(allUsers, allProducts, orderCount, orderAmount,
+                orderCarbon));
         dashboard.setPendingVerifications(getPendingVerifications(allProducts));
-        dashboard.setTopSellers(calculateTopSellers(allOrders));
-        dashboard.setRecentActivities(getRecentActivities(recentAudits, 10));
-        dashboard.setCarbonImpact(calculatePlatformCarbonImpact(allOrders));
+        dashboard.setTopSellers(topSellerService.getTopSellers(10));
+        dashboard.setRecentActivities(recentActivityFeed.latest(10));
+        dashboard.setCarbonImpact(calculatePlatformCarbonImpact(orderCount, orderCarbon));
         dashboard.setUserRoleDistribution(calculateUserRoleDistribution(allUsers));
 
         return dashboard;
     }
 
-    private PlatformStatsDTO calculatePlatformStats(List<User> users, List<Product> products, List<Order> orders) {
+    private PlatformStatsDTO calculatePlatformStats(List<User> users, List<Product> products, long orderCount,
+                                                    double totalRevenue, double totalCarbon) {
         PlatformStatsDTO stats = new PlatformStatsDTO();
 
         stats.setTotalUsers(users.size());
         stats.setTotalSellers((int) users.stream().filter(u -> u.getRole() == Role.SELLER).count());
         stats.setTotalProducts(products.size());
-        stats.setTotalOrders(orders.size());
+        stats.setTotalOrders((int) orderCount);
         stats.setActiveUsers((int) users.stream().filter(User::isActive).count());
 
-        double totalRevenue = orders.stream()
-                .mapToDouble(Order::getTotalAmount)
-                .sum();
         stats.setTotalRevenue(totalRevenue);
-
-        double totalCarbon = orders.stream()
-                .mapToDouble(Order::getTotalCarbonFootprint)
-                .sum();
         stats.setPlatformCarbonFootprint(totalCarbon);
 
-        double baselineCarbon = orders.size() * 10.0;
+        double baselineCarbon = orderCount * 10.0;
         stats.setPlatformCarbonSaved(Math.max(0, baselineCarbon - totalCarbon));
 
         return stats;
@@ -880,79 +412,26 @@ public class DashboardService {
                 .collect(Collectors.toList());
     }
 
-    private List<TopSellerDTO> calculateTopSellers(List<Order> orders) {
-        Map<Long, TopSellerDTO> sellerMap = new HashMap<>();
-
-        for (Order order : orders) {
-            for (OrderItem item : order.getItems()) {
-                User seller = item.getProduct().getSeller();
-                TopSellerDTO sellerDTO = sellerMap.getOrDefault(seller.getId(),
-                        new TopSellerDTO(seller.getId(), seller.getFullName(), 0, 0.0, 0.0));
-
-                sellerDTO.setProductsSold(sellerDTO.getProductsSold() + item.getQuantity());
-                sellerDTO.setRevenue(sellerDTO.getRevenue() + (item.getPriceSnapshot() * item.getQuantity()));
-
-                sellerMap.put(seller.getId(), sellerDTO);
-            }
-        }
-
-        for (TopSellerDTO seller : sellerMap.values()) {
-            List<Product> sellerProducts = productRepository.findBySellerId(seller.getSellerId());
-            double avgCarbon = sellerProducts.stream()
-                    .mapToDouble(Product::getTotalCarbonFootprint)
-                    .average()
-                    .orElse(0.0);
-            seller.setAverageCarbonImpact(avgCarbon);
-        }
-
-        return sellerMap.values().stream()
-                .sorted((s1, s2) -> Double.compare(s2.getRevenue(), s1.getRevenue()))
-                .limit(10)
-                .collect(Collectors.toList());
-    }
-
-    private List<RecentActivityDTO> getRecentActivities(List<AuditLog> logs, int limit) {
-        return logs.stream()
-                .sorted((l1, l2) -> l2.getTimestamp().compareTo(l1.getTimestamp()))
-                .limit(limit)
-                .map(log -> new RecentActivityDTO(
-                        log.getActor().getFullName(),
-                        log.getAction(),
-                        log.getEntityType(),
-                        log.getEntityId(),
-                        log.getTimestamp(),
-                        log.getMetadata()
-                ))
-                .collect(Collectors.toList());
-    }
-
-    private CarbonImpactSummaryDTO calculatePlatformCarbonImpact(List<Order> orders) {
+    private CarbonImpactSummaryDTO calculatePlatformCarbonImpact(long orderCount, double totalCarbon) {
         CarbonImpactSummaryDTO impact = new CarbonImpactSummaryDTO();
 
-        double totalCarbon = orders.stream()
-                .mapToDouble(Order::getTotalCarbonFootprint)
-                .sum();
         impact.setTotalCarbonFootprint(totalCarbon);
 
-        double baselineCarbon = orders.size() * 10.0;
+        double baselineCarbon = orderCount * 10.0;
         impact.setTotalCarbonSaved(Math.max(0, baselineCarbon - totalCarbon));
 
-        double avgCarbon = orders.isEmpty() ? 0 : totalCarbon / orders.size();
+        double avgCarbon = orderCount == 0 ? 0 : totalCarbon / orderCount;
         impact.setAverageCarbonPerOrder(avgCarbon);
 
         int highImpact = 0, lowImpact = 0;
         Map<String, Double> carbonByCategory = new HashMap<>();
 
-        for (Order order : orders) {
-            for (OrderItem item : order.getItems()) {
-                if (item.getCarbonSnapshot() > 5.0) highImpact++;
-                if (item.getCarbonSnapshot() < 2.0) lowImpact++;
-
-                String category = item.getProduct().getCategory();
-                carbonByCategory.merge(category,
-                        item.getCarbonSnapshot() * item.getQuantity(),
-                        Double::sum);
-            }
+        List<Object[]> rows = new ArrayList<>(orderItemRepository.sumCarbonImpactByCategory());
+        rows.addAll(archivedOrderRepository.sumCarbonImpactByCategory());
+        for (Object[] row : rows) {
+            highImpact += ((Number) row[1]).intValue();
+            lowImpact += ((Number) row[2]).intValue();
+            carbonByCategory.merge((String) row[0], ((Number) row[3]).doubleValue(), Double::sum);
         }
 
         impact.setHighImpactProducts(highImpact);
@@ -0,0 +1,123 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.model.SketchCheckpoint;
+import com.example.EcoBazaar_module2.model.UserEcoProgress;
+import com.example.EcoBazaar_module2.repository.ArchivedOrderRepository;
+import com.example.EcoBazaar_module2.repository.OrderRepository;
+import com.example.EcoBazaar_module2.repository.SketchCheckpointRepository;
+import com.example.EcoBazaar_module2.repository.UserEcoProgressRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Platform-wide distributions of eco scores (one value per tracked user) and
+ * per-order carbon, kept in {@link QuantileSketch}es so "greener than X% of
+ * shoppers" is an O(1) lookup instead of scoring every user.
+ *
+ * Sketches are updated after each committed order and checkpointed to the
+ * database periodically and on shutdown; on startup the last checkpoint is
+ * loaded, or the sketches are rebuilt once from progress rows and orders.
+ */
+@Service
+public class EcoPercentileService {
+
+    static final String ECO_SCORES = "eco_scores";
+    static final String ORDER_CARBON = "order_carbon";
+
+    private final QuantileSketch ecoScores = new QuantileSketch(1, 1000);
+    private final QuantileSketch orderCarbon = new QuantileSketch(100, 1000); // 10 g resolution
+
+    private volatile boolean loaded = false;
+
+    @Autowired
+    private SketchCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private UserEcoProgressRepository progressRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        boolean rebuilt = false;
+
+        SketchCheckpoint scores = checkpointRepository.findById(ECO_SCORES).orElse(null);
+        if (scores != null) {
+            ecoScores.load(scores.getData());
+        } else {
+            for (UserEcoProgress progress : progressRepository.findAll()) {
+                ecoScores.add(EcoScore.of(progress));
+            }
+            rebuilt = true;
+        }
+
+        SketchCheckpoint carbon = checkpointRepository.findById(ORDER_CARBON).orElse(null);
+        if (carbon != null) {
+            orderCarbon.load(carbon.getData());
+        } else {
+            for (Double value : orderRepository.findAllCarbonFootprints()) {
+                orderCarbon.add(value);
+            }
+            for (Double value : archivedOrderRepository.findAllCarbonFootprints()) {
+                orderCarbon.add(value);
+            }
+            rebuilt = true;
+        }
+
+        loaded = true;
+        if (rebuilt) {
+            checkpoint();
+        }
+        System.out.println("✓ Eco percentile sketches ready: " + ecoScores.getCount()
+                + " users, " + orderCarbon.getCount() + " orders");
+    }
+
+    // Only committed orders may move the distributions, hence the after-commit hooks below
+
+    /** Moves a user's eco score in the distribution; previous is null for a newly tracked user. */
+    public void recordEcoScore(Integer previous, int current) {
+        if (previous != null && previous == current) return;
+        TransactionHooks.afterCommit(() -> {
+            if (previous != null) ecoScores.remove(previous);
+            ecoScores.add(current);
+        });
+    }
+
+    public void recordOrderCarbon(double carbon) {
+        TransactionHooks.afterCommit(() -> orderCarbon.add(carbon));
+    }
+
+    /** Percentage (0-100) of tracked shoppers with a lower eco score. */
+    public double ecoScorePercentile(int ecoScore) {
+        return Math.round(ecoScores.fractionBelow(ecoScore) * 1000.0) / 10.0;
+    }
+
+    /** Percentage (0-100) of platform orders with a higher carbon footprint. */
+    public double orderCarbonPercentile(double carbonPerOrder) {
+        return Math.round(orderCarbon.fractionAbove(carbonPerOrder) * 1000.0) / 10.0;
+    }
+
+    @Scheduled(fixedDelayString = "${eco.percentile.checkpoint-interval-ms:300000}")
+    public void checkpoint() {
+        if (!loaded) return;
+        checkpointRepository.save(new SketchCheckpoint(ECO_SCORES, ecoScores.toBytes(), ecoScores.getCount(), null));
+        checkpointRepository.save(new SketchCheckpoint(ORDER_CARBON, orderCarbon.toBytes(), orderCarbon.getCount(), null));
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        try {
+            checkpoint();
+        } catch (Exception e) {
+            System.err.println("Eco percentile checkpoint on shutdown failed: " + e.getMessage());
+        }
+    }
+}
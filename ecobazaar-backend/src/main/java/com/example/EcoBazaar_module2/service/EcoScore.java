@@ -0,0 +1,72 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.model.UserEcoProgress;
+
+/**
+ * Eco score and badge formulas shared by the dashboard and the incremental
+ * progress tracking, so both always agree on a user's score.
+ */
+public final class EcoScore {
+
+    public static final double BASELINE_CARBON_PER_ORDER = 10.0; // Assume 10kg per order baseline
+
+    private EcoScore() {
+    }
+
+    public static double carbonSaved(int totalOrders, double totalCarbon) {
+        return Math.max(0, totalOrders * BASELINE_CARBON_PER_ORDER - totalCarbon);
+    }
+
+    public static int of(UserEcoProgress progress) {
+        return calculate(progress.getTotalOrders(), progress.getTotalSpent(), progress.getTotalCarbon(),
+                progress.getGreenPurchases(), progress.getPremiumEcoPurchases(), progress.getRepeatedCategories());
+    }
+
+    public static int calculate(int totalOrders, double totalSpent, double totalCarbon,
+                                int greenPurchases, int premiumEcoPurchases, int repeatedCategories) {
+        // Eco efficiency (lower is better)
+        double ecoEfficiency = totalSpent > 0 ? totalCarbon / totalSpent : 0;
+        return calculate(carbonSaved(totalOrders, totalCarbon), greenPurchases, premiumEcoPurchases,
+                totalOrders, repeatedCategories, ecoEfficiency);
+    }
+
+    public static int calculate(double carbonSaved, int greenPurchases,
+                                int premiumEcoPurchases, int totalOrders,
+                                int repeatedCategories, double ecoEfficiency) {
+        // Multi-factor eco score calculation
+        int score = 0;
+
+        // Carbon savings (up to 500 points)
+        score += Math.min(500, (int)(carbonSaved * 10));
+
+        // Green purchases (10 points each)
+        score += greenPurchases * 10;
+
+        // Premium eco purchases (20 points each)
+        score += premiumEcoPurchases * 20;
+
+        // Loyalty bonus for repeat category purchases (5 points each)
+        score += repeatedCategories * 5;
+
+        // Order frequency bonus (5 points per order)
+        score += totalOrders * 5;
+
+        // Efficiency bonus (inverse of eco efficiency, up to 200 points)
+        if (ecoEfficiency > 0 && ecoEfficiency < 1) {
+            score += Math.min(200, (int)(100 / ecoEfficiency));
+        }
+
+        return Math.max(0, score);
+    }
+
+    public static String badge(int ecoScore) {
+        if (ecoScore >= 2000) return "🏆 Eco Legend";
+        else if (ecoScore >= 1500) return "🌟 Planet Hero";
+        else if (ecoScore >= 1000) return "⭐ Sustainability Master";
+        else if (ecoScore >= 750) return "🦸 Eco Warrior";
+        else if (ecoScore >= 500) return "💚 Low Carbon Leader";
+        else if (ecoScore >= 250) return "🌱 Eco Enthusiast";
+        else if (ecoScore >= 100) return "🌿 Eco Starter";
+        else return "🔰 Green Beginner";
+    }
+}
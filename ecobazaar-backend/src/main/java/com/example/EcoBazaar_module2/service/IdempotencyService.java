@@ -0,0 +1,81 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.model.IdempotencyKey;
+import com.example.EcoBazaar_module2.repository.IdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Idempotency-Key support for order creation. A key is claimed with a single
+ * INSERT ... ON CONFLICT before any work starts, so of several concurrent
+ * duplicates exactly one proceeds; it is marked completed (with the order id)
+ * in the checkout transaction itself, and released again if checkout fails.
+ * Every claim carries a random token, and completing or releasing a key only
+ * succeeds for the token that currently holds it.
+ */
+@Service
+public class IdempotencyService {
+
+    @Value("${idempotency.ttl-hours:24}")
+    private int ttlHours;
+
+    // An in-progress key older than this is assumed abandoned (e.g. the node died)
+    @Value("${idempotency.stall-seconds:120}")
+    private int stallSeconds;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    /**
+     * Claims the key for this request under {@code token} (see {@link #newToken()}).
+     * Returns null if the caller now owns it, otherwise the existing record
+     * (in progress or completed).
+     */
+    public IdempotencyKey claim(String key, Long userId, String token) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (idempotencyKeyRepository.claim(key, userId, token, ttlHours, stallSeconds) == 1) {
+                return null;
+            }
+            IdempotencyKey existing = idempotencyKeyRepository.findById(key).orElse(null);
+            if (existing != null) {
+                return existing;
+            }
+            // Purged between the two statements; try once more
+        }
+        throw new RuntimeException("Could not claim idempotency key");
+    }
+
+    public String newToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Records the created order; runs in the checkout transaction. Fails (rolling the
+     * checkout back) if this request stalled and a retry has taken the key over.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(String key, String token, Long orderId) {
+        if (idempotencyKeyRepository.complete(key, token, orderId) == 0) {
+            throw new RuntimeException("Idempotency-Key was taken over by a retry");
+        }
+    }
+
+    /** Frees a key whose request failed, so the client can retry it; a no-op once another request holds it. */
+    public void release(String key, String token) {
+        idempotencyKeyRepository.release(key, token);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = idempotencyKeyRepository.deleteExpired();
+        if (deleted > 0) {
+            System.out.println("✓ Purged " + deleted + " expired idempotency keys");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.model.CartItem;
+import com.example.EcoBazaar_module2.model.OrderItem;
+import com.example.EcoBazaar_module2.model.Product;
+import com.example.EcoBazaar_module2.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stock reservation for checkout. Each line is taken with a conditional
+ * UPDATE ... WHERE quantity >= ?, which locks only that product row and fails
+ * instead of overselling. Rows are always updated in ascending product id order,
+ * so two checkouts sharing products cannot deadlock, and the caller's transaction
+ * rolls every line back if any one of them is short.
+ */
+@Service
+public class InventoryService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /**
+     * Reserves stock for all cart lines or none. Must run inside the checkout
+     * transaction; call it as late as possible there, since the product row locks
+     * are held until commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(List<CartItem> lines) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for (CartItem line : lines) {
+            Product product = line.getProduct();
+            quantities.merge(product.getId(), line.getQuantity(), Integer::sum);
+            names.putIfAbsent(product.getId(), product.getName());
+        }
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (productRepository.reserveStock(entry.getKey(), entry.getValue()) == 0) {
+                throw new RuntimeException("Insufficient stock for " + names.get(entry.getKey()));
+            }
+        }
+    }
+
+    /** Puts the stock of a cancelled order back, in the same lock order. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(List<OrderItem> lines) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem line : lines) {
+            quantities.merge(line.getProduct().getId(), line.getQuantity(), Integer::sum);
+        }
+        release(quantities);
+    }
+
+    /** Puts back stock per product id (e.g. summed over many cancelled orders). */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<Long, Integer> quantitiesByProduct) {
+        new TreeMap<>(quantitiesByProduct).forEach(productRepository::releaseStock);
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.LeaderboardEntryDTO;
+import com.example.EcoBazaar_module2.model.*;
+import com.example.EcoBazaar_module2.repository.ArchivedOrderRepository;
+import com.example.EcoBazaar_module2.repository.LeaderboardEntryRepository;
+import com.example.EcoBazaar_module2.repository.OrderItemRepository;
+import com.example.EcoBazaar_module2.repository.OrderRepository;
+import com.example.EcoBazaar_module2.repository.UserEcoProgressRepository;
+import com.example.EcoBazaar_module2.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Eco leaderboards held in memory as {@link RankedSkipList}s, one global board
+ * (eco score) and one per product category (eco points earned in that category:
+ * 10 per green line, 30 per premium line).
+ *
+ * Scores are written through to leaderboard_entries inside the order transaction
+ * and applied to memory after commit; on startup the boards are loaded from that
+ * table (or rebuilt once from order aggregates if it is empty).
+ */
+@Service
+public class LeaderboardService {
+
+    static final String GLOBAL = "global";
+    private static final String CATEGORY_PREFIX = "category:";
+
+    @Autowired
+    private LeaderboardEntryRepository entryRepository;
+
+    @Autowired
+    private UserEcoProgressRepository progressRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+    private final Map<Long, String> userNames = new ConcurrentHashMap<>();
+
+    // Before OutboxDispatcher.start, so a rebuild never races the delivery of an order
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void load() {
+        List<LeaderboardEntry> entries = new ArrayList<>(entryRepository.findAll());
+        if (entries.isEmpty()) {
+            entries = rebuild();
+        } else if (entryRepository.countUsersMissingFromGlobal() > 0) {
+            entries.addAll(seedMissingGlobal(entries));
+        }
+
+        for (LeaderboardEntry entry : entries) {
+            board(entry.getBoard()).set(entry.getUserId(), entry.getScore());
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        entries.forEach(e -> userIds.add(e.getUserId()));
+        for (User user : userRepository.findAllById(userIds)) {
+            userNames.put(user.getId(), displayName(user));
+        }
+
+        System.out.println("✓ Leaderboards loaded: " + boards.size() + " boards, " + userIds.size() + " users");
+    }
+
+    /**
+     * Seeds every board from the orders whose OrderPlaced event was delivered (the rest
+     * arrive through recordOrder). Global scores come from progress rows where they exist,
+     * else from the same per-user aggregates, so users who ordered before progress tracking
+     * are ranked too.
+     */
+    private List<LeaderboardEntry> rebuild() {
+        Seed seed = aggregate();
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        seed.globalScores().forEach((userId, score) ->
+                entries.add(new LeaderboardEntry(null, GLOBAL, userId, (long) score, null)));
+        seed.categoryPoints().forEach((category, points) -> points.forEach((userId, total) ->
+                entries.add(new LeaderboardEntry(null, CATEGORY_PREFIX + category, userId, total, null))));
+        return entryRepository.saveAll(entries);
+    }
+
+    /**
+     * Adds global scores for users who have orders but no global row, e.g. boards first
+     * built from progress rows only, which left out users who ordered before progress tracking.
+     */
+    private List<LeaderboardEntry> seedMissingGlobal(List<LeaderboardEntry> existing) {
+        Set<Long> ranked = new HashSet<>();
+        for (LeaderboardEntry entry : existing) {
+            if (entry.getBoard().equals(GLOBAL)) ranked.add(entry.getUserId());
+        }
+        List<LeaderboardEntry> added = new ArrayList<>();
+        aggregate().globalScores().forEach((userId, score) -> {
+            if (!ranked.contains(userId)) {
+                added.add(new LeaderboardEntry(null, GLOBAL, userId, (long) score, null));
+            }
+        });
+        return entryRepository.saveAll(added);
+    }
+
+    private record Seed(Map<Long, Integer> globalScores, Map<String, Map<Long, Long>> categoryPoints) {
+    }
+
+    private Seed aggregate() {
+        Map<Long, UserTotals> totals = new HashMap<>();
+        List<Object[]> orderRows = new ArrayList<>(orderRepository.sumTotalsByUser());
+        orderRows.addAll(archivedOrderRepository.sumTotalsByUser());
+        for (Object[] row : orderRows) {
+            UserTotals user = totals.computeIfAbsent(((Number) row[0]).longValue(), id -> new UserTotals());
+            user.orders += ((Number) row[1]).intValue();
+            user.spent += ((Number) row[2]).doubleValue();
+            user.carbon += ((Number) row[3]).doubleValue();
+        }
+        // (category, userId) -> points over hot and archived orders
+        Map<String, Map<Long, Long>> categoryPoints = new HashMap<>();
+        List<Object[]> lineRows = new ArrayList<>(orderItemRepository.sumEcoLinesByUserAndCategory());
+        lineRows.addAll(archivedOrderRepository.sumEcoLinesByUserAndCategory());
+        for (Object[] row : lineRows) {
+            long userId = ((Number) row[0]).longValue();
+            String category = (String) row[1];
+            int green = ((Number) row[3]).intValue();
+            int premium = ((Number) row[4]).intValue();
+            UserTotals user = totals.computeIfAbsent(userId, id -> new UserTotals());
+            user.green += green;
+            user.premium += premium;
+            user.categoryLines.merge(category != null ? category : "", ((Number) row[2]).intValue(), Integer::sum);
+            // Premium lines are also green: 10 + 20 = 30 points, see linePoints
+            long points = 10L * green + 20L * premium;
+            if (category != null && points > 0) {
+                categoryPoints.computeIfAbsent(category, c -> new HashMap<>()).merge(userId, points, Long::sum);
+            }
+        }
+
+        Map<Long, Integer> globalScores = new HashMap<>();
+        totals.forEach((userId, user) -> globalScores.put(userId, user.ecoScore()));
+        for (UserEcoProgress progress : progressRepository.findAll()) {
+            globalScores.put(progress.getUserId(), EcoScore.of(progress));
+        }
+
+        return new Seed(globalScores, categoryPoints);
+    }
+
+    // Per-user order aggregates with the same meaning as the UserEcoProgress counters
+    private static class UserTotals {
+        int orders;
+        double spent;
+        double carbon;
+        int green;
+        int premium;
+        final Map<String, Integer> categoryLines = new HashMap<>();
+
+        int ecoScore() {
+            int repeatedCategories = (int) categoryLines.values().stream().filter(count -> count > 1).count();
+            return EcoScore.calculate(orders, spent, carbon, green, premium, repeatedCategories);
+        }
+    }
+
+    // ============= UPDATES =============
+
+    /** Sets a user's global eco score. Must be called inside the transaction that changed it. */
+    public void updateEcoScore(User user, int ecoScore) {
+        entryRepository.upsertScore(GLOBAL, user.getId(), ecoScore);
+        String name = displayName(user);
+        TransactionHooks.afterCommit(() -> {
+            userNames.put(user.getId(), name);
+            board(GLOBAL).set(user.getId(), ecoScore);
+        });
+    }
+
+    /** Adds the category eco points earned by a newly placed order. */
+    public void recordOrder(Order order) {
+        Map<String, Long> points = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            String category = item.getProduct().getCategory();
+            long linePoints = linePoints(item.getCarbonSnapshot());
+            if (category != null && linePoints > 0) {
+                points.merge(category, linePoints, Long::sum);
+            }
+        }
+        if (points.isEmpty()) return;
+
+        Long userId = order.getUser().getId();
+        points.forEach((category, delta) -> entryRepository.addToScore(CATEGORY_PREFIX + category, userId, delta));
+        TransactionHooks.afterCommit(() -> points.forEach((category, delta) -> board(CATEGORY_PREFIX + category).add(userId, delta)));
+    }
+
+    /** Shows a changed display name once the transaction that saved it commits. */
+    public void renameUser(User user) {
+        Long userId = user.getId();
+        String name = displayName(user);
+        TransactionHooks.afterCommit(() -> userNames.computeIfPresent(userId, (id, old) -> name));
+    }
+
+    static long linePoints(double carbon) {
+        if (carbon < OrderHistoryMetrics.PREMIUM_ECO_CARBON_THRESHOLD) return 30;
+        if (carbon < OrderHistoryMetrics.GREEN_CARBON_THRESHOLD) return 10;
+        return 0;
+    }
+
+    // ============= QUERIES (memory only) =============
+
+    public List<LeaderboardEntryDTO> getTop(String category, int limit) {
+        Board board = boards.get(boardKey(category));
+        return board == null ? List.of() : board.top(limit);
+    }
+
+    public LeaderboardEntryDTO getUserRank(Long userId, String category) {
+        Board board = boards.get(boardKey(category));
+        LeaderboardEntryDTO entry = board != null ? board.entry(userId) : null;
+        return entry != null ? entry : new LeaderboardEntryDTO(0, userId, userNames.get(userId), 0L);
+    }
+
+    private static String boardKey(String category) {
+        return category == null || category.isEmpty() || category.equals("All") ? GLOBAL : CATEGORY_PREFIX + category;
+    }
+
+    private Board board(String key) {
+        return boards.computeIfAbsent(key, k -> new Board());
+    }
+
+    private static String displayName(User user) {
+        return user.getFullName() != null ? user.getFullName() : user.getEmail();
+    }
+
+
+    /** One ranked board: skip list plus a user -> score index, single writer / many readers. */
+    private class Board {
+        private final RankedSkipList list = new RankedSkipList();
+        private final Map<Long, Long> scores = new HashMap<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void set(long userId, long score) {
+            lock.writeLock().lock();
+            try {
+                Long old = scores.put(userId, score);
+                if (old != null) {
+                    if (old == score) return;
+                    list.delete(userId, old);
+                }
+                list.insert(userId, score);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void add(long userId, long delta) {
+            lock.writeLock().lock();
+            try {
+                Long old = scores.get(userId);
+                long score = (old != null ? old : 0) + delta;
+                scores.put(userId, score);
+                if (old != null) list.delete(userId, old);
+                list.insert(userId, score);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<LeaderboardEntryDTO> top(int k) {
+            lock.readLock().lock();
+            try {
+                List<LeaderboardEntryDTO> result = new ArrayList<>();
+                int rank = 1;
+                for (RankedSkipList.Node node : list.top(k)) {
+                    result.add(new LeaderboardEntryDTO(rank++, node.userId, userNames.get(node.userId), node.score));
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        LeaderboardEntryDTO entry(long userId) {
+            lock.readLock().lock();
+            try {
+                Long score = scores.get(userId);
+                if (score == null) return null;
+                return new LeaderboardEntryDTO(list.rank(userId, score), userId, userNames.get(userId), score);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.EcoBazaar_module2.service;
+
+/**
+ * Flat, ordinal-indexed values for every {@link DashboardMetric}.
+ * Filled once per request and then only read by the rule engine.
+ */
+public class MetricVector {
+
+    private static final int SIZE = DashboardMetric.values().length;
+
+    private final double[] values = new double[SIZE];
+    private final String[] labels = new String[SIZE];
+
+    public MetricVector set(DashboardMetric metric, double value) {
+        values[metric.ordinal()] = value;
+        return this;
+    }
+
+    public MetricVector setLabel(DashboardMetric metric, String label) {
+        labels[metric.ordinal()] = label;
+        return this;
+    }
+
+    public double get(DashboardMetric metric) {
+        return values[metric.ordinal()];
+    }
+
+    public String getLabel(DashboardMetric metric) {
+        return labels[metric.ordinal()];
+    }
+
+    double get(int ordinal) {
+        return values[ordinal];
+    }
+
+    String getLabel(int ordinal) {
+        return labels[ordinal];
+    }
+
+    void set(int ordinal, double value) {
+        values[ordinal] = value;
+    }
+}
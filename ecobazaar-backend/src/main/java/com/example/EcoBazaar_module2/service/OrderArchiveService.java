@@ -0,0 +1,82 @@
+package com.example.EcoBazaar_module2.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hot/cold split for orders. Delivered and cancelled orders older than the
+ * archive age are moved, in batches, from orders/order_items into
+ * archived_orders with their lines packed into one jsonb column, so the hot
+ * tables and their indexes only hold recent and still-open orders.
+ * Readers that need full history merge both, see OrderHistoryService.
+ */
+@Service
+public class OrderArchiveService {
+
+    // Orders stay hot at least this long: the seller revenue rings re-read the last 32 days from order_items
+    private static final int MIN_ARCHIVE_AGE_DAYS = 60;
+
+    private static final String SELECT_BATCH = "SELECT id FROM orders " +
+            "WHERE status IN ('DELIVERED', 'CANCELLED') AND created_at < ? ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String COPY_BATCH = "INSERT INTO archived_orders (id, user_id, status, total_amount, " +
+            "total_carbon_footprint, shipping_address, phone_number, payment_method, payment_status, created_at, " +
+            "archived_at, item_count, lines) " +
+            "SELECT o.id, o.user_id, o.status, o.total_amount, o.total_carbon_footprint, o.shipping_address, " +
+            "o.phone_number, o.payment_method, o.payment_status, o.created_at, now(), " +
+            "(SELECT COUNT(*) FROM order_items i WHERE i.order_id = o.id), " +
+            "COALESCE((SELECT jsonb_agg(jsonb_build_array(i.id, i.product_id, p.seller_id, p.category, " +
+            "i.product_name_snapshot, i.quantity, i.price_snapshot, i.carbon_snapshot) ORDER BY i.id) " +
+            "FROM order_items i LEFT JOIN products p ON p.id = i.product_id WHERE i.order_id = o.id), '[]'::jsonb) " +
+            "FROM orders o WHERE o.id = ANY(?)";
+
+    @Value("${orders.archive.after-days:180}")
+    private int archiveAfterDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Scheduled(cron = "${orders.archive.cron:0 45 3 * * *}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(Math.max(archiveAfterDays, MIN_ARCHIVE_AGE_DAYS));
+        long archived = 0;
+        int moved;
+        try {
+            do {
+                moved = transactionTemplate.execute(tx -> moveBatch(cutoff));
+                archived += moved;
+            } while (moved == batchSize);
+        } catch (Exception e) {
+            // Each batch is its own transaction; whatever is left is picked up on the next run
+            System.err.println("Order archive failed: " + e.getMessage());
+        }
+        if (archived > 0) {
+            System.out.println("✓ Archived " + archived + " orders older than " + cutoff.toLocalDate());
+        }
+    }
+
+    private int moveBatch(LocalDateTime cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_BATCH, Long.class, Timestamp.valueOf(cutoff), batchSize);
+        if (ids.isEmpty()) return 0;
+
+        Long[] idArray = ids.toArray(new Long[0]);
+        jdbcTemplate.update(COPY_BATCH, (Object) idArray);
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id = ANY(?)", (Object) idArray);
+        jdbcTemplate.update("DELETE FROM orders WHERE id = ANY(?)", (Object) idArray);
+        return ids.size();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.model.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams order history (hot and archived) straight from a forward-only JDBC
+ * cursor to the response, one row at a time, as NDJSON or CSV. Only fetch-size
+ * rows are ever held in memory, however many orders match.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String SELECT_HOT = "SELECT o.id, o.user_id, o.status, o.total_amount, " +
+            "o.total_carbon_footprint, o.payment_method, o.payment_status, o.created_at, " +
+            "(SELECT COUNT(*) FROM order_items i WHERE i.order_id = o.id) AS item_count " +
+            "FROM orders o WHERE o.created_at >= ? AND o.created_at < ?";
+
+    private static final String SELECT_ARCHIVED = "SELECT o.id, o.user_id, o.status, o.total_amount, " +
+            "o.total_carbon_footprint, o.payment_method, o.payment_status, o.created_at, o.item_count " +
+            "FROM archived_orders o WHERE o.created_at >= ? AND o.created_at < ?";
+
+    private static final String[] COLUMNS = {"id", "userId", "status", "totalAmount", "totalCarbonFootprint",
+            "paymentMethod", "paymentStatus", "createdAt", "itemCount"};
+
+    @Value("${orders.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JdbcTemplate cursorTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        // PostgreSQL only uses a cursor for the fetch size when autocommit is off
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** Writes orders placed in [from, to), optionally with one status, oldest first. */
+    public void export(LocalDateTime from, LocalDateTime to, OrderStatus status, Format format, OutputStream out) {
+        Timestamp start = Timestamp.valueOf(from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0));
+        Timestamp end = Timestamp.valueOf(to != null ? to : LocalDateTime.now().plusDays(1));
+        String statusFilter = status != null ? " AND o.status = ?" : "";
+        List<Object> args = new ArrayList<>();
+        for (int part = 0; part < 2; part++) {
+            args.add(start);
+            args.add(end);
+            if (status != null) args.add(status.name());
+        }
+        String sql = SELECT_HOT + statusFilter + " UNION ALL " + SELECT_ARCHIVED + statusFilter
+                + " ORDER BY created_at, id";
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            if (format == Format.CSV) {
+                writer.write(String.join(",", COLUMNS));
+                writer.write('\n');
+            }
+            readOnlyTransaction.executeWithoutResult(tx -> cursorTemplate.query(sql, rs -> {
+                try {
+                    if (format == Format.CSV) {
+                        writeCsv(rs, writer);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(toMap(rs)));
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    // Usually the client went away; abandons the query
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray()));
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Object> toMap(ResultSet rs) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", rs.getLong("id"));
+        row.put("userId", rs.getLong("user_id"));
+        row.put("status", rs.getString("status"));
+        row.put("totalAmount", rs.getDouble("total_amount"));
+        row.put("totalCarbonFootprint", rs.getDouble("total_carbon_footprint"));
+        row.put("paymentMethod", rs.getString("payment_method"));
+        row.put("paymentStatus", rs.getString("payment_status"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        row.put("createdAt", createdAt != null ? createdAt.toLocalDateTime().toString() : null);
+        row.put("itemCount", rs.getInt("item_count"));
+        return row;
+    }
+
+    private static void writeCsv(ResultSet rs, Writer writer) throws SQLException, IOException {
+        boolean first = true;
+        for (Object value : toMap(rs).values()) {
+            if (!first) writer.write(',');
+            first = false;
+            if (value != null) writer.write(csvField(value.toString()));
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
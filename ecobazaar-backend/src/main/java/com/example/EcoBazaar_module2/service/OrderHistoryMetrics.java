@@ -0,0 +1,166 @@
+package com.example.EcoBazaar_module2.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * All per-user order-history metrics the dashboard needs, produced by a single
+ * fused pass over {@link OrderLineColumns}. Accumulators are primitives indexed
+ * by category ordinal, so the pass itself allocates nothing per line.
+ */
+public class OrderHistoryMetrics {
+
+    public static final double GREEN_CARBON_THRESHOLD = 2.0;
+    public static final double PREMIUM_ECO_CARBON_THRESHOLD = 1.0;
+
+    // Eco rating buckets, in display order
+    static final String[] ECO_RATINGS = {"A+", "A", "B", "C", "D"};
+
+    private int totalOrders;
+    private double totalSpent;
+    private double totalCarbon;
+    private int totalLines;
+    private int greenLines;
+    private int premiumEcoLines;
+    private long firstOrderAt = Long.MAX_VALUE;
+    private long lastOrderAt = Long.MIN_VALUE;
+
+    private String[] categories;
+    private int[] categoryLineCount;
+    private double[] categoryUnitCarbon;     // sum of per-unit carbon snapshots
+    private double[] categoryWeightedCarbon; // sum of carbon * quantity
+    private final int[] ecoRatingQuantities = new int[ECO_RATINGS.length];
+
+    private OrderHistoryMetrics() {
+    }
+
+    /**
+     * Fused aggregation kernel: one loop over the order columns and one over the
+     * line columns. Replaces the separate walks previously done by the stats, tips,
+     * category-breakdown and eco-rating calculations.
+     */
+    public static OrderHistoryMetrics aggregate(OrderLineColumns columns) {
+        OrderHistoryMetrics m = new OrderHistoryMetrics();
+        int categoryCount = columns.categories.length;
+        m.categories = columns.categories;
+        m.categoryLineCount = new int[categoryCount];
+        m.categoryUnitCarbon = new double[categoryCount];
+        m.categoryWeightedCarbon = new double[categoryCount];
+
+        m.totalOrders = columns.orderCount;
+        for (int o = 0; o < columns.orderCount; o++) {
+            m.totalSpent += columns.orderAmount[o];
+            m.totalCarbon += columns.orderCarbon[o];
+            long ts = columns.orderTimestamps[o];
+            if (ts < m.firstOrderAt) m.firstOrderAt = ts;
+            if (ts > m.lastOrderAt) m.lastOrderAt = ts;
+        }
+
+        m.totalLines = columns.lineCount;
+        for (int l = 0; l < columns.lineCount; l++) {
+            double carbon = columns.lineCarbon[l];
+            int quantity = columns.lineQuantity[l];
+            int category = columns.lineCategory[l];
+
+            if (carbon < GREEN_CARBON_THRESHOLD) m.greenLines++;
+            if (carbon < PREMIUM_ECO_CARBON_THRESHOLD) m.premiumEcoLines++;
+
+            m.categoryLineCount[category]++;
+            m.categoryUnitCarbon[category] += carbon;
+            m.categoryWeightedCarbon[category] += carbon * quantity;
+
+            m.ecoRatingQuantities[ecoRatingIndex(carbon)] += quantity;
+        }
+
+        return m;
+    }
+
+    static int ecoRatingIndex(double carbon) {
+        if (carbon < 1.0) return 0;
+        else if (carbon < 2.0) return 1;
+        else if (carbon < 5.0) return 2;
+        else if (carbon < 10.0) return 3;
+        else return 4;
+    }
+
+    public int getTotalOrders() {
+        return totalOrders;
+    }
+
+    public double getTotalSpent() {
+        return totalSpent;
+    }
+
+    public double getTotalCarbon() {
+        return totalCarbon;
+    }
+
+    /** Number of order lines (not units), matching the historical "items purchased" stat. */
+    public int getTotalLines() {
+        return totalLines;
+    }
+
+    public int getGreenLines() {
+        return greenLines;
+    }
+
+    public int getPremiumEcoLines() {
+        return premiumEcoLines;
+    }
+
+    /** Categories bought on more than one order line. */
+    public int getRepeatedCategories() {
+        int repeated = 0;
+        for (int count : categoryLineCount) {
+            if (count > 1) repeated++;
+        }
+        return repeated;
+    }
+
+    /** Whole days between the first and the last order, or -1 if fewer than two orders. */
+    public long getOrderSpanDays() {
+        if (totalOrders < 2) return -1;
+        return (lastOrderAt - firstOrderAt) / 86_400_000L;
+    }
+
+    /** Index of the category with the highest average per-unit carbon, or -1 if there are no lines. */
+    public int getHighestAvgCarbonCategory() {
+        int highest = -1;
+        double highestAvg = 0;
+        for (int c = 0; c < categories.length; c++) {
+            double avg = categoryUnitCarbon[c] / categoryLineCount[c];
+            if (avg > highestAvg) {
+                highestAvg = avg;
+                highest = c;
+            }
+        }
+        return highest;
+    }
+
+    public String getCategoryName(int ordinal) {
+        return categories[ordinal];
+    }
+
+    public double getCategoryAvgCarbon(int ordinal) {
+        return categoryUnitCarbon[ordinal] / categoryLineCount[ordinal];
+    }
+
+    /** Carbon (snapshot * quantity) per category, rounded to two decimals. */
+    public Map<String, Double> getCategoryBreakdown() {
+        Map<String, Double> breakdown = new HashMap<>();
+        for (int c = 0; c < categories.length; c++) {
+            breakdown.put(categories[c], Math.round(categoryWeightedCarbon[c] * 100.0) / 100.0);
+        }
+        return breakdown;
+    }
+
+    /** Units purchased per eco rating (A+, A, B, C, D). */
+    public Map<String, Integer> getEcoRatingDistribution() {
+        Map<String, Integer> distribution = new LinkedHashMap<>();
+        for (int r = 0; r < ECO_RATINGS.length; r++) {
+            distribution.put(ECO_RATINGS[r], ecoRatingQuantities[r]);
+        }
+        return distribution;
+    }
+}
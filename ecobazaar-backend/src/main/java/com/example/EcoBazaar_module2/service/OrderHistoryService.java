@@ -0,0 +1,139 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.OrderDetailDTO;
+import com.example.EcoBazaar_module2.dto.OrderItemDTO;
+import com.example.EcoBazaar_module2.model.*;
+import com.example.EcoBazaar_module2.repository.ArchivedOrderRepository;
+import com.example.EcoBazaar_module2.repository.OrderRepository;
+import com.example.EcoBazaar_module2.repository.ProductRepository;
+import com.example.EcoBazaar_module2.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Full order history across the hot tables and archived_orders. Archived orders
+ * are unpacked into detached Order/OrderItem objects (never to be saved), so
+ * code written against the entities sees one history. Their products are the
+ * live rows where those still exist, else stubs built from the archived line.
+ */
+@Service
+public class OrderHistoryService {
+
+    // Positions in an archived line, see ArchivedOrder
+    private static final int ITEM_ID = 0, PRODUCT_ID = 1, SELLER_ID = 2, CATEGORY = 3, NAME = 4,
+            QUANTITY = 5, PRICE = 6, CARBON = 7;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public List<Order> findByUserId(Long userId) {
+        List<Order> orders = new ArrayList<>(orderRepository.findByUserId(userId));
+        orders.addAll(unpack(archivedOrderRepository.findByUserIdOrderByCreatedAtDesc(userId)));
+        return orders;
+    }
+
+    public Optional<OrderDetailDTO> findArchivedDetail(Long orderId) {
+        return archivedOrderRepository.findById(orderId).map(this::toDetail);
+    }
+
+    public List<OrderDetailDTO> findArchivedDetails(Long userId) {
+        return archivedOrderRepository.findByUserIdOrderByCreatedAtDesc(userId).stream().map(this::toDetail).toList();
+    }
+
+    private OrderDetailDTO toDetail(ArchivedOrder archived) {
+        OrderDetailDTO dto = new OrderDetailDTO(archived.getId(), archived.getUserId(), archived.getStatus(),
+                archived.getTotalAmount(), archived.getTotalCarbonFootprint(), archived.getShippingAddress(),
+                archived.getPhoneNumber(), archived.getPaymentMethod(), archived.getPaymentStatus(),
+                archived.getCreatedAt(), new ArrayList<>());
+        for (JsonNode line : lines(archived)) {
+            dto.getItems().add(new OrderItemDTO(longOrNull(line.get(ITEM_ID)), longOrNull(line.get(PRODUCT_ID)),
+                    line.get(NAME).asText(), line.get(QUANTITY).asInt(), line.get(PRICE).asDouble(),
+                    line.get(CARBON).asDouble()));
+        }
+        return dto;
+    }
+
+    private List<Order> unpack(List<ArchivedOrder> archivedOrders) {
+        if (archivedOrders.isEmpty()) return List.of();
+
+        List<JsonNode> linesByOrder = new ArrayList<>(archivedOrders.size());
+        Set<Long> productIds = new HashSet<>();
+        for (ArchivedOrder archived : archivedOrders) {
+            JsonNode lines = lines(archived);
+            linesByOrder.add(lines);
+            lines.forEach(line -> productIds.add(line.get(PRODUCT_ID).asLong()));
+        }
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(product -> products.put(product.getId(), product));
+
+        List<Order> orders = new ArrayList<>(archivedOrders.size());
+        for (int i = 0; i < archivedOrders.size(); i++) {
+            ArchivedOrder archived = archivedOrders.get(i);
+            Order order = new Order();
+            order.setId(archived.getId());
+            order.setUser(userRepository.getReferenceById(archived.getUserId()));
+            order.setStatus(archived.getStatus());
+            order.setTotalAmount(archived.getTotalAmount());
+            order.setTotalCarbonFootprint(archived.getTotalCarbonFootprint());
+            order.setShippingAddress(archived.getShippingAddress());
+            order.setPhoneNumber(archived.getPhoneNumber());
+            order.setPaymentMethod(archived.getPaymentMethod());
+            order.setPaymentStatus(archived.getPaymentStatus());
+            order.setCreatedAt(archived.getCreatedAt());
+            for (JsonNode line : linesByOrder.get(i)) {
+                OrderItem item = new OrderItem();
+                item.setId(longOrNull(line.get(ITEM_ID)));
+                item.setOrder(order);
+                item.setProduct(products.computeIfAbsent(line.get(PRODUCT_ID).asLong(), id -> stubProduct(id, line)));
+                item.setQuantity(line.get(QUANTITY).asInt());
+                item.setPriceSnapshot(line.get(PRICE).asDouble());
+                item.setCarbonSnapshot(line.get(CARBON).asDouble());
+                item.setProductNameSnapshot(line.get(NAME).asText());
+                order.getItems().add(item);
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    // Stand-in for a product deleted since the order was archived
+    private static Product stubProduct(Long id, JsonNode line) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(line.get(NAME).asText());
+        product.setCategory(line.get(CATEGORY).isNull() ? null : line.get(CATEGORY).asText());
+        User seller = new User();
+        seller.setId(longOrNull(line.get(SELLER_ID)));
+        product.setSeller(seller);
+        return product;
+    }
+
+    private JsonNode lines(ArchivedOrder archived) {
+        try {
+            return objectMapper.readTree(archived.getLines());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Corrupt archived order " + archived.getId(), e);
+        }
+    }
+
+    private static Long longOrNull(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asLong();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.model.Order;
+import com.example.EcoBazaar_module2.model.OrderItem;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar (struct-of-arrays) view of one user's order history.
+ * Order lines are flattened once into primitive arrays so the dashboard
+ * aggregations can run over them without walking Order -> OrderItem -> Product again.
+ * Categories are dictionary-encoded: lineCategory holds an index into categories.
+ */
+public class OrderLineColumns {
+
+    // Per-order columns
+    final int orderCount;
+    final long[] orderTimestamps;   // epoch millis (UTC)
+    final double[] orderAmount;
+    final double[] orderCarbon;
+
+    // Per-line columns
+    final int lineCount;
+    final double[] lineCarbon;      // carbon snapshot per unit
+    final int[] lineQuantity;
+    final int[] lineCategory;       // ordinal into categories
+
+    // Category dictionary (may contain null for uncategorised products)
+    final String[] categories;
+
+    private OrderLineColumns(int orderCount, int lineCount, int categoryCapacity) {
+        this.orderCount = orderCount;
+        this.orderTimestamps = new long[orderCount];
+        this.orderAmount = new double[orderCount];
+        this.orderCarbon = new double[orderCount];
+
+        this.lineCount = lineCount;
+        this.lineCarbon = new double[lineCount];
+        this.lineQuantity = new int[lineCount];
+        this.lineCategory = new int[lineCount];
+
+        this.categories = new String[categoryCapacity];
+    }
+
+    public static OrderLineColumns of(List<Order> orders) {
+        int lines = 0;
+        for (Order order : orders) {
+            lines += order.getItems().size();
+        }
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> categoryNames = new ArrayList<>();
+        int[] categoryOrdinals = new int[lines];
+
+        // Encode categories first so the dictionary can be sized exactly
+        int l = 0;
+        for (Order order : orders) {
+            for (OrderItem item : order.getItems()) {
+                String category = item.getProduct().getCategory();
+                Integer ordinal = dictionary.get(category);
+                if (ordinal == null) {
+                    ordinal = categoryNames.size();
+                    dictionary.put(category, ordinal);
+                    categoryNames.add(category);
+                }
+                categoryOrdinals[l++] = ordinal;
+            }
+        }
+
+        OrderLineColumns columns = new OrderLineColumns(orders.size(), lines, categoryNames.size());
+        categoryNames.toArray(columns.categories);
+
+        int o = 0;
+        l = 0;
+        for (Order order : orders) {
+            columns.orderTimestamps[o] = toEpochMillis(order.getCreatedAt());
+            columns.orderAmount[o] = order.getTotalAmount();
+            columns.orderCarbon[o] = order.getTotalCarbonFootprint();
+            o++;
+
+            for (OrderItem item : order.getItems()) {
+                columns.lineCarbon[l] = item.getCarbonSnapshot();
+                columns.lineQuantity[l] = item.getQuantity();
+                columns.lineCategory[l] = categoryOrdinals[l];
+                l++;
+            }
+        }
+
+        return columns;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getCategoryCount() {
+        return categories.length;
+    }
+
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
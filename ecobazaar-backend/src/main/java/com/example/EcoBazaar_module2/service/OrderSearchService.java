@@ -0,0 +1,147 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.OrderSearchCriteria;
+import com.example.EcoBazaar_module2.dto.OrderSearchPageDTO;
+import com.example.EcoBazaar_module2.dto.OrderSummaryDTO;
+import com.example.EcoBazaar_module2.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Admin order search. Filters are combined into one SQL statement; pages are
+ * keyset cursors over (created_at, id) newest first, which the orders indexes
+ * serve in order, so deep pages cost the same as the first. When totals are
+ * requested they are aggregated over the whole filtered set in the same
+ * statement.
+ */
+@Service
+public class OrderSearchService {
+
+    static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public OrderSearchPageDTO search(OrderSearchCriteria criteria) {
+        int pageSize = Math.max(1, Math.min(criteria.getLimit(), MAX_PAGE_SIZE));
+        LocalDateTime from = criteria.getFrom() != null ? criteria.getFrom() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = criteria.getTo() != null ? criteria.getTo() : LocalDateTime.now().plusDays(1);
+
+        // Without a cursor the first page ends just before "to"
+        LocalDateTime cursorTs = to;
+        long cursorId = 0;
+        if (criteria.getCursor() != null && !criteria.getCursor().isEmpty()) {
+            String[] parts = new String(Base64.getUrlDecoder().decode(criteria.getCursor()), StandardCharsets.UTF_8)
+                    .split(",");
+            if (parts.length != 2) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            cursorTs = LocalDateTime.parse(parts[0]);
+            cursorId = Long.parseLong(parts[1]);
+        }
+
+        List<Object> args = new ArrayList<>();
+        // Hot and archived orders; item_count is only stored for archived ones
+        StringBuilder sql = new StringBuilder("WITH filtered AS NOT MATERIALIZED (" +
+                "SELECT o.id, o.user_id, o.status, o.total_amount, o.total_carbon_footprint, " +
+                "o.payment_method, o.payment_status, o.created_at, NULL::int AS item_count FROM orders o");
+        appendFilters(criteria, from, to, sql, args);
+        sql.append(" UNION ALL SELECT o.id, o.user_id, o.status, o.total_amount, o.total_carbon_footprint, " +
+                "o.payment_method, o.payment_status, o.created_at, o.item_count FROM archived_orders o");
+        appendFilters(criteria, from, to, sql, args);
+        sql.append("), page AS (SELECT * FROM filtered WHERE (created_at, id) < (?, ?) " +
+                "ORDER BY created_at DESC, id DESC LIMIT ?) " +
+                "SELECT p.id, p.user_id, p.status, p.total_amount, p.total_carbon_footprint, p.payment_method, " +
+                "p.payment_status, p.created_at, COALESCE(p.item_count, " +
+                "(SELECT COUNT(*) FROM order_items i WHERE i.order_id = p.id)) AS item_count");
+        args.add(Timestamp.valueOf(cursorTs));
+        args.add(cursorId);
+        args.add(pageSize);
+        if (criteria.isIncludeTotals()) {
+            // Totals drive the join so they come back even when the page is empty
+            sql.append(", t.match_count, t.amount_sum, t.carbon_sum FROM (SELECT COUNT(*) AS match_count, " +
+                    "COALESCE(SUM(total_amount), 0) AS amount_sum, " +
+                    "COALESCE(SUM(total_carbon_footprint), 0) AS carbon_sum FROM filtered) t " +
+                    "LEFT JOIN page p ON TRUE");
+        } else {
+            sql.append(" FROM page p");
+        }
+        sql.append(" ORDER BY p.created_at DESC, p.id DESC");
+
+        OrderSearchPageDTO result = new OrderSearchPageDTO(new ArrayList<>(), null, null, null, null);
+        jdbcTemplate.query(sql.toString(), rs -> {
+            if (criteria.isIncludeTotals() && result.getMatchCount() == null) {
+                result.setMatchCount(rs.getLong("match_count"));
+                result.setTotalAmount(rs.getDouble("amount_sum"));
+                result.setTotalCarbonFootprint(rs.getDouble("carbon_sum"));
+            }
+            long id = rs.getLong("id");
+            if (rs.wasNull()) return;
+            result.getOrders().add(new OrderSummaryDTO(id, rs.getLong("user_id"),
+                    OrderStatus.valueOf(rs.getString("status")), rs.getDouble("total_amount"),
+                    rs.getDouble("total_carbon_footprint"), rs.getString("payment_method"),
+                    rs.getString("payment_status"), rs.getInt("item_count"),
+                    rs.getTimestamp("created_at").toLocalDateTime()));
+        }, args.toArray());
+
+        List<OrderSummaryDTO> orders = result.getOrders();
+        if (orders.size() == pageSize) {
+            OrderSummaryDTO last = orders.get(orders.size() - 1);
+            String position = last.getCreatedAt() + "," + last.getId();
+            result.setNextCursor(Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(position.getBytes(StandardCharsets.UTF_8)));
+        }
+        return result;
+    }
+
+    /** Ids of all hot orders matching the filters (cursor and page size are ignored), up to max. */
+    public List<Long> findIds(OrderSearchCriteria criteria, int max) {
+        LocalDateTime from = criteria.getFrom() != null ? criteria.getFrom() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = criteria.getTo() != null ? criteria.getTo() : LocalDateTime.now().plusDays(1);
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT o.id FROM orders o");
+        appendFilters(criteria, from, to, sql, args);
+        sql.append(" ORDER BY o.id LIMIT ?");
+        args.add(max);
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    private static void appendFilters(OrderSearchCriteria criteria, LocalDateTime from, LocalDateTime to,
+                                      StringBuilder sql, List<Object> args) {
+        sql.append(" WHERE o.created_at >= ? AND o.created_at < ?");
+        args.add(Timestamp.valueOf(from));
+        args.add(Timestamp.valueOf(to));
+        if (criteria.getStatus() != null) {
+            sql.append(" AND o.status = ?");
+            args.add(criteria.getStatus().name());
+        }
+        if (criteria.getPaymentMethod() != null) {
+            sql.append(" AND o.payment_method = ?");
+            args.add(criteria.getPaymentMethod());
+        }
+        if (criteria.getPaymentStatus() != null) {
+            sql.append(" AND o.payment_status = ?");
+            args.add(criteria.getPaymentStatus());
+        }
+        if (criteria.getUserId() != null) {
+            sql.append(" AND o.user_id = ?");
+            args.add(criteria.getUserId());
+        }
+        if (criteria.getMinAmount() != null) {
+            sql.append(" AND o.total_amount >= ?");
+            args.add(criteria.getMinAmount());
+        }
+        if (criteria.getMaxAmount() != null) {
+            sql.append(" AND o.total_amount <= ?");
+            args.add(criteria.getMaxAmount());
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package com.example.EcoBazaar_module2.service;
 
+import com.example.EcoBazaar_module2.dto.BulkStatusRequest;
+import com.example.EcoBazaar_module2.dto.BulkStatusResultDTO;
+import com.example.EcoBazaar_module2.dto.OrderDetailDTO;
+import com.example.EcoBazaar_module2.dto.OrderItemDTO;
+import com.example.EcoBazaar_module2.dto.OrderStatusChangeDTO;
+import com.example.EcoBazaar_module2.dto.OrderSummaryDTO;
 import com.example.EcoBazaar_module2.model.*;
+import com.example.EcoBazaar_module2.repository.ArchivedOrderRepository;
 import com.example.EcoBazaar_module2.repository.OrderItemRepository;
 import com.example.EcoBazaar_module2.repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderService {
 
+    static final int MAX_BULK_ORDERS = 5000;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -27,10 +42,53 @@ public class OrderService {
     @Autowired
     private AuditService auditService;
 
-    @Transactional
+    @Autowired
+    private AchievementService achievementService;
+
+    @Autowired
+    private EcoPercentileService ecoPercentileService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private SellerRevenueService sellerRevenueService;
+
+    @Autowired
+    private TopSellerService topSellerService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OrderSearchService orderSearchService;
+
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
     public Order createOrderFromCart(Long userId, String address, String phone, String paymentMethod) {
-        // 1. Get Cart
-        Cart cart = cartService.getUserCart(userId);
+        return createOrderFromCart(userId, address, phone, paymentMethod, null, null);
+    }
+
+    /**
+     * Converts the user's cart into an order. With an idempotency key (already
+     * claimed by the caller under {@code claimToken}) the key is marked completed
+     * in the same transaction.
+     */
+    @Transactional
+    public Order createOrderFromCart(Long userId, String address, String phone, String paymentMethod,
+                                     String idempotencyKey, String claimToken) {
+        // 1. Get Cart, locked until commit so concurrent cart changes cannot slip in before it is cleared
+        Cart cart = cartService.lockCartForCheckout(userId);
         if (cart.getItems().isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
@@ -77,22 +135,65 @@ public class OrderService {
 
         order.setTotalAmount(totalAmount);
         order.setTotalCarbonFootprint(totalCarbon);
+        order.setStockReserved(true); // reserved below; a shortfall rolls the order back
 
         // 4. Save Order
         Order savedOrder = orderRepository.save(order);
 
-        // 5. Clear Cart
+        // 5. Everything else (eco progress, leaderboards, seller stats, audit) follows
+        // asynchronously from the outbox, see onOrderPlaced
+        outboxService.publish("ORDER", savedOrder.getId(),
+                new OutboxService.OrderPlaced(savedOrder.getId(), userId, paymentMethod));
+
+        // 6. Take stock for every line (all or nothing); last, so row locks are held briefly
+        inventoryService.reserve(cart.getItems());
+
+        // 7. Clear Cart
         cartService.clearCart(userId);
 
-        // 6. Log
-        auditService.log(userId, "ORDER_CREATED", "ORDER", savedOrder.getId(),
-                "Order placed via " + paymentMethod);
+        // 8. Mark the idempotency key done in the same transaction
+        if (idempotencyKey != null) {
+            idempotencyService.complete(idempotencyKey, claimToken, savedOrder.getId());
+        }
 
         return savedOrder;
     }
 
-    public List<Order> getUserOrders(Long userId) {
-        return orderRepository.findByUserId(userId);
+    /**
+     * Post-order side effects, delivered by the outbox dispatcher inside its
+     * delivery transaction. An event may be delivered again after a failed
+     * attempt, but never after a delivery that committed.
+     */
+    @EventListener
+    public void onOrderPlaced(OutboxService.OrderPlaced event) {
+        Order order = orderRepository.findById(event.orderId()).orElse(null);
+        if (order == null) return;
+
+        // Eco progress counters, achievement unlocks and leaderboards
+        achievementService.recordOrder(order);
+        ecoPercentileService.recordOrderCarbon(order.getTotalCarbonFootprint());
+        leaderboardService.recordOrder(order);
+        sellerRevenueService.recordOrder(order);
+        topSellerService.recordOrder(order);
+
+        auditService.log(event.userId(), "ORDER_CREATED", "ORDER", order.getId(),
+                "Order placed via " + event.paymentMethod());
+    }
+
+    /** The user's orders with their lines, newest first (hot orders, then archived ones). */
+    public List<OrderDetailDTO> getUserOrders(Long userId) {
+        List<OrderDetailDTO> orders = toDetails(orderRepository.findDetailRowsByUserId(userId));
+        orders.addAll(orderHistoryService.findArchivedDetails(userId));
+        return orders;
+    }
+
+    public OrderDetailDTO getOrderDetail(Long orderId) {
+        List<OrderDetailDTO> details = toDetails(orderRepository.findDetailRows(orderId));
+        if (!details.isEmpty()) {
+            return details.get(0);
+        }
+        return orderHistoryService.findArchivedDetail(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
     public Order getOrderById(Long orderId) {
@@ -100,12 +201,131 @@ public class OrderService {
                 .orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    /** Every order without its lines, newest first (hot orders, then archived ones). */
+    public List<OrderSummaryDTO> getAllOrders() {
+        List<OrderSummaryDTO> orders = new ArrayList<>(orderRepository.findAllSummaries());
+        orders.addAll(archivedOrderRepository.findAllSummaries());
+        return orders;
+    }
+
+    /**
+     * Moves many orders to one status with a single UPDATE. Orders are locked and
+     * checked against {@link OrderStatus#allowedTransitions()} first; each requested
+     * id gets its own outcome, and the whole change is one audit entry.
+     */
+    @Transactional
+    public BulkStatusResultDTO bulkUpdateStatus(BulkStatusRequest request) {
+        if (request.getStatus() == null || request.getActorId() == null) {
+            throw new RuntimeException("status and actorId are required");
+        }
+        boolean byIds = request.getOrderIds() != null && !request.getOrderIds().isEmpty();
+        if (byIds == (request.getFilter() != null)) {
+            throw new RuntimeException("Provide either orderIds or filter");
+        }
+
+        List<Long> ids = byIds
+                ? request.getOrderIds().stream().distinct().toList()
+                : orderSearchService.findIds(request.getFilter(), MAX_BULK_ORDERS + 1);
+        if (ids.size() > MAX_BULK_ORDERS) {
+            throw new RuntimeException("At most " + MAX_BULK_ORDERS + " orders per bulk update");
+        }
+
+        OrderStatus target = request.getStatus();
+        Map<Long, OrderStatus> current = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Object[] row : orderRepository.lockStatuses(ids)) {
+                current.put(((Number) row[0]).longValue(), OrderStatus.valueOf((String) row[1]));
+            }
+        }
+        // Archived orders are final (delivered or cancelled): reported, never updated
+        Map<Long, OrderStatus> archived = new HashMap<>();
+        List<Long> missing = ids.stream().filter(id -> !current.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            for (Object[] row : archivedOrderRepository.findStatuses(missing)) {
+                archived.put((Long) row[0], (OrderStatus) row[1]);
+            }
+        }
+
+        List<OrderStatusChangeDTO> results = new ArrayList<>(ids.size());
+        List<Long> toUpdate = new ArrayList<>();
+        for (Long id : ids) {
+            OrderStatus previous = current.containsKey(id) ? current.get(id) : archived.get(id);
+            String outcome;
+            if (previous == null) {
+                outcome = "NOT_FOUND";
+            } else if (previous == target) {
+                outcome = "UNCHANGED";
+            } else if (!current.containsKey(id) || !previous.canTransitionTo(target)) {
+                outcome = "NOT_ALLOWED";
+            } else {
+                outcome = "UPDATED";
+                toUpdate.add(id);
+            }
+            results.add(new OrderStatusChangeDTO(id, previous, outcome));
+        }
+
+        if (!toUpdate.isEmpty()) {
+            orderRepository.updateStatus(toUpdate, target);
+            if (target == OrderStatus.CANCELLED) {
+                // Only orders that reserved stock (and have not released it) put it back;
+                // the rows are locked above, so the sum and the flag reset agree
+                Map<Long, Integer> quantities = new HashMap<>();
+                for (Object[] row : orderItemRepository.sumReservedQuantitiesByProduct(toUpdate)) {
+                    quantities.put((Long) row[0], ((Number) row[1]).intValue());
+                }
+                inventoryService.release(quantities);
+                orderRepository.clearStockReserved(toUpdate);
+            }
+            auditService.log(request.getActorId(), "BULK_ORDER_STATUS", "ORDER", 0L,
+                    target + ": " + toUpdate.size() + " orders " + toUpdate);
+        }
+        return new BulkStatusResultDTO(target, toUpdate.size(), results);
+    }
+
+    // Groups the one-row-per-line result of OrderRepository.DETAIL_COLUMNS into orders
+    private static List<OrderDetailDTO> toDetails(List<Object[]> rows) {
+        Map<Long, OrderDetailDTO> orders = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            OrderDetailDTO order = orders.computeIfAbsent((Long) row[0], id -> {
+                OrderDetailDTO dto = new OrderDetailDTO();
+                dto.setId(id);
+                dto.setUserId((Long) row[1]);
+                dto.setStatus((OrderStatus) row[2]);
+                dto.setTotalAmount((Double) row[3]);
+                dto.setTotalCarbonFootprint((Double) row[4]);
+                dto.setShippingAddress((String) row[5]);
+                dto.setPhoneNumber((String) row[6]);
+                dto.setPaymentMethod((String) row[7]);
+                dto.setPaymentStatus((String) row[8]);
+                dto.setCreatedAt((LocalDateTime) row[9]);
+                return dto;
+            });
+            if (row[10] != null) {
+                order.getItems().add(new OrderItemDTO((Long) row[10], (Long) row[11], (String) row[12],
+                        (Integer) row[13], (Double) row[14], (Double) row[15]));
+            }
+        }
+        return new ArrayList<>(orders.values());
     }
 
+    /**
+     * Moves one order to a new status, checked against {@link OrderStatus#allowedTransitions()}
+     * like bulk updates. Cancelling puts back the stock the order reserved, at most once.
+     */
+    @Transactional
     public Order updateOrderStatus(Long orderId, OrderStatus status) {
-        Order order = getOrderById(orderId);
+        Order order = orderRepository.findForUpdate(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (order.getStatus() == status) {
+            return order;
+        }
+        if (!order.getStatus().canTransitionTo(status)) {
+            throw new RuntimeException("Cannot move order from " + order.getStatus() + " to " + status);
+        }
+        if (status == OrderStatus.CANCELLED && order.isStockReserved()) {
+            inventoryService.release(order.getItems());
+            order.setStockReserved(false);
+        }
         order.setStatus(status);
         return orderRepository.save(order);
     }
@@ -0,0 +1,195 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.model.OutboxEvent;
+import com.example.EcoBazaar_module2.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers outbox events to their listeners, at least once. A background thread
+ * wakes on every commit that published events (or every poll interval), locks a
+ * batch of due rows and runs all listeners for the batch in one transaction that
+ * also marks the rows processed. Database work done by listeners therefore
+ * commits exactly when the event is marked delivered, and in-memory updates that
+ * listeners defer to after commit are skipped when delivery rolls back.
+ *
+ * If a batch fails, its events are retried one by one so a single bad event does
+ * not hold up the rest; a failing event is retried with exponential backoff and
+ * marked FAILED after the maximum number of attempts.
+ */
+@Component
+public class OutboxDispatcher {
+
+    @Value("${outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.max-backoff-seconds:300}")
+    private long maxBackoffSeconds;
+
+    @Value("${outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private Thread worker;
+    private volatile boolean running;
+
+    // Not before the context is ready: listeners must all be registered before the first delivery,
+    // and in-memory aggregates warmed on ApplicationReadyEvent must be loaded
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void start() {
+        running = true;
+        worker = new Thread(this::dispatchLoop, "outbox-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+        System.out.println("✓ Outbox dispatcher started (batch " + batchSize + ", poll " + pollIntervalMs + "ms)");
+    }
+
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                wakeUps.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits();
+                // Keep going while full batches come back; there may be a backlog
+                int taken;
+                do {
+                    taken = dispatchBatch();
+                } while (running && taken == batchSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Outbox dispatcher error: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Delivers one batch of due events; returns how many were taken. */
+    int dispatchBatch() {
+        List<OutboxEvent> batch;
+        try {
+            batch = transactionTemplate.execute(status -> {
+                List<OutboxEvent> locked = outboxEventRepository.lockDue(batchSize);
+                locked.forEach(this::deliver);
+                if (!locked.isEmpty()) {
+                    outboxEventRepository.markProcessed(locked.stream().map(OutboxEvent::getId).toList(),
+                            LocalDateTime.now());
+                }
+                return locked;
+            });
+        } catch (Exception e) {
+            // Some event in the batch failed and everything rolled back; isolate it
+            List<Long> ids = transactionTemplate.execute(status ->
+                    outboxEventRepository.lockDue(batchSize).stream().map(OutboxEvent::getId).toList());
+            ids.forEach(this::dispatchOne);
+            return ids.size();
+        }
+        return batch.size();
+    }
+
+    private void dispatchOne(Long id) {
+        OutboxEvent[] current = new OutboxEvent[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.lockPending(id).ifPresent(event -> {
+                current[0] = event;
+                deliver(event);
+                outboxEventRepository.markProcessed(List.of(id), LocalDateTime.now());
+            }));
+        } catch (Exception e) {
+            if (current[0] != null) {
+                recordFailure(current[0], e);
+            }
+        }
+    }
+
+    private void deliver(OutboxEvent event) {
+        Class<?> type = OutboxService.EVENT_TYPES.get(event.getEventType());
+        if (type == null) {
+            throw new IllegalStateException("Unknown outbox event type " + event.getEventType());
+        }
+        try {
+            eventPublisher.publishEvent(objectMapper.readValue(event.getPayload(), type));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload for outbox event " + event.getId(), e);
+        }
+    }
+
+    private void recordFailure(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        String status = attempts >= maxAttempts ? OutboxEvent.FAILED : OutboxEvent.PENDING;
+        long backoff = Math.min(maxBackoffSeconds, 1L << Math.min(attempts, 20));
+        String error = String.valueOf(e.getMessage());
+        if (error.length() > 1000) error = error.substring(0, 1000);
+
+        String message = error;
+        transactionTemplate.executeWithoutResult(tx -> outboxEventRepository.recordFailure(event.getId(), status,
+                LocalDateTime.now().plusSeconds(backoff), message));
+        System.err.println("Outbox event " + event.getId() + " (" + event.getEventType() + ") failed, attempt "
+                + attempts + (OutboxEvent.FAILED.equals(status) ? ", giving up" : "") + ": " + error);
+    }
+
+    @Scheduled(cron = "${outbox.purge.cron:0 15 4 * * *}")
+    public void purgeProcessed() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long deleted = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(tx -> outboxEventRepository.deleteProcessedBefore(cutoff, 5000));
+            deleted += chunk;
+        } while (chunk > 0);
+        if (deleted > 0) {
+            System.out.println("✓ Purged " + deleted + " delivered outbox events");
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Undelivered events stay in the table and are picked up after restart
+        running = false;
+        if (worker == null) return;
+        wakeUp();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
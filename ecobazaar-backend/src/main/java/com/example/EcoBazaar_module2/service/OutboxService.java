@@ -0,0 +1,78 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.model.OutboxEvent;
+import com.example.EcoBazaar_module2.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Transactional outbox. Domain events are inserted into outbox_events in the
+ * same transaction as the change they describe, so an event exists if and only
+ * if the change committed. {@link OutboxDispatcher} delivers them afterwards to
+ * plain {@code @EventListener} methods for the event records below.
+ */
+@Service
+public class OutboxService {
+
+    public record OrderPlaced(Long orderId, Long userId, String paymentMethod) {
+    }
+
+    // change is CREATED, UPDATED or DELETED; carbon values are the product's total footprint
+    public record ProductChanged(Long productId, Long sellerId, Long actorId, String change,
+                                 double oldCarbon, double newCarbon) {
+    }
+
+    public record ReviewAdded(Long reviewId, Long productId, Long userId, int rating) {
+    }
+
+    public record WishlistChanged(Long userId, Long productId, boolean added) {
+    }
+
+    // event_type column value -> payload class
+    static final Map<String, Class<?>> EVENT_TYPES = Stream.of(
+                    OrderPlaced.class, ProductChanged.class, ReviewAdded.class, WishlistChanged.class)
+            .collect(Collectors.toMap(Class::getSimpleName, Function.identity()));
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    /** Records an event; must run inside the transaction that makes the change. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String aggregateType, Long aggregateId, Object event) {
+        String type = event.getClass().getSimpleName();
+        if (!EVENT_TYPES.containsKey(type)) {
+            throw new IllegalArgumentException("Unknown outbox event type " + type);
+        }
+
+        OutboxEvent row = new OutboxEvent();
+        row.setEventType(type);
+        row.setAggregateType(aggregateType);
+        row.setAggregateId(aggregateId);
+        try {
+            row.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize " + type, e);
+        }
+        row.setNextAttemptAt(LocalDateTime.now());
+        outboxEventRepository.save(row);
+
+        // Deliver right after commit instead of waiting for the next poll
+        TransactionHooks.afterCommit(outboxDispatcher::wakeUp);
+    }
+}
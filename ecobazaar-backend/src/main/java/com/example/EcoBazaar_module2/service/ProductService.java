@@ -8,6 +8,7 @@ import com.example.EcoBazaar_module2.repository.ProductCarbonDataRepository;
 import com.example.EcoBazaar_module2.repository.ProductRepository;
 import com.example.EcoBazaar_module2.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +30,12 @@ public class ProductService {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private TopSellerService topSellerService;
+
+    @Autowired
+    private OutboxService outboxService;
+
     /**
      * Enhanced search with comprehensive filtering and sorting
      */
@@ -144,6 +151,8 @@ public class ProductService {
 
         carbonData.setProduct(savedProduct);
         carbonDataRepository.save(carbonData);
+        outboxService.publish("PRODUCT", savedProduct.getId(), new OutboxService.ProductChanged(
+                savedProduct.getId(), sellerId, sellerId, "CREATED", 0.0, carbonData.getTotalCO2e()));
 
         auditService.log(sellerId, "CREATE_PRODUCT", "PRODUCT", savedProduct.getId(),
                 "Product: " + name);
@@ -163,6 +172,7 @@ public class ProductService {
             throw new RuntimeException("Unauthorized");
         }
 
+        double oldCarbon = product.getTotalCarbonFootprint();
         product.setName(name);
         product.setDescription(description);
         product.setPrice(price);
@@ -192,6 +202,8 @@ public class ProductService {
         }
 
         Product updated = productRepository.save(product);
+        outboxService.publish("PRODUCT", productId, new OutboxService.ProductChanged(productId,
+                product.getSeller().getId(), userId, "UPDATED", oldCarbon, product.getTotalCarbonFootprint()));
         auditService.log(userId, "UPDATE_PRODUCT", "PRODUCT", productId, null);
 
         return updated;
@@ -207,6 +219,8 @@ public class ProductService {
             throw new RuntimeException("Unauthorized");
         }
 
+        outboxService.publish("PRODUCT", productId, new OutboxService.ProductChanged(productId,
+                product.getSeller().getId(), userId, "DELETED", product.getTotalCarbonFootprint(), 0.0));
         productRepository.delete(product);
         auditService.log(userId, "DELETE_PRODUCT", "PRODUCT", productId, "Deleted");
     }
@@ -244,6 +258,21 @@ public class ProductService {
         auditService.log(adminId, "VERIFY_PRODUCT", "PRODUCT", productId, null);
     }
 
+    /** Keeps the seller carbon aggregates in step with the catalogue (outbox delivery). */
+    @EventListener
+    public void onProductChanged(OutboxService.ProductChanged event) {
+        switch (event.change()) {
+            case "CREATED" -> topSellerService.productAdded(event.sellerId(), event.newCarbon());
+            case "UPDATED" -> {
+                if (event.oldCarbon() != event.newCarbon()) {
+                    topSellerService.productCarbonUpdated(event.sellerId(), event.oldCarbon(), event.newCarbon());
+                }
+            }
+            case "DELETED" -> topSellerService.productRemoved(event.sellerId(), event.oldCarbon());
+            default -> throw new IllegalArgumentException("Unknown product change " + event.change());
+        }
+    }
+
     private boolean isCarbonDataEmpty(ProductCarbonData data) {
         return data.getManufacturing() == 0 && data.getTransportation() == 0 &&
                 data.getPackaging() == 0 && data.getUsage() == 0 && data.getDisposal() == 0;
@@ -0,0 +1,161 @@
+package com.example.EcoBazaar_module2.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mergeable log-linear histogram (HDR-style) for non-negative values.
+ *
+ * Values are scaled to integer units and bucketed with 32 linear sub-buckets per
+ * power of two, i.e. exact below 64 units and ~3% relative error above. Counts can
+ * be added and removed, so a per-user value can be moved when it changes.
+ *
+ * Rank lookups read a cumulative snapshot that is rebuilt at most once per
+ * refresh interval, so {@link #fractionBelow} / {@link #fractionAbove} are O(1).
+ */
+public class QuantileSketch {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MSB = 40; // values up to 2^41 units
+
+    static final int BUCKETS = SUB_BUCKETS + (MAX_MSB - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final double unitsPerValue;
+    private final long refreshMillis;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private volatile boolean dirty = true;
+
+    // Cumulative snapshot: cumulative[b] = number of values in buckets < b
+    private volatile long[] cumulative = new long[BUCKETS + 1];
+    private volatile long lastRefresh;
+
+    /**
+     * @param unitsPerValue resolution, e.g. 1 for integer scores, 100 for 0.01 kg
+     * @param refreshMillis maximum staleness of rank lookups
+     */
+    public QuantileSketch(double unitsPerValue, long refreshMillis) {
+        this.unitsPerValue = unitsPerValue;
+        this.refreshMillis = refreshMillis;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void remove(double value) {
+        add(value, -1);
+    }
+
+    private void add(double value, long delta) {
+        counts.addAndGet(bucketOf(value), delta);
+        total.add(delta);
+        dirty = true;
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    /** Fraction (0..1) of recorded values strictly lower than the given value's bucket. */
+    public double fractionBelow(double value) {
+        long[] snapshot = snapshot();
+        long n = snapshot[BUCKETS];
+        return n == 0 ? 0 : (double) snapshot[bucketOf(value)] / n;
+    }
+
+    /** Fraction (0..1) of recorded values strictly higher than the given value's bucket. */
+    public double fractionAbove(double value) {
+        long[] snapshot = snapshot();
+        long n = snapshot[BUCKETS];
+        return n == 0 ? 0 : (double) (n - snapshot[bucketOf(value) + 1]) / n;
+    }
+
+    /** Adds all counts of another sketch with the same resolution. */
+    public void merge(QuantileSketch other) {
+        for (int b = 0; b < BUCKETS; b++) {
+            long c = other.counts.get(b);
+            if (c != 0) {
+                counts.addAndGet(b, c);
+                total.add(c);
+            }
+        }
+        dirty = true;
+    }
+
+    private long[] snapshot() {
+        if (dirty && System.currentTimeMillis() - lastRefresh >= refreshMillis) {
+            synchronized (this) {
+                if (dirty && System.currentTimeMillis() - lastRefresh >= refreshMillis) {
+                    dirty = false;
+                    long[] next = new long[BUCKETS + 1];
+                    long running = 0;
+                    for (int b = 0; b < BUCKETS; b++) {
+                        next[b] = running;
+                        running += counts.get(b);
+                    }
+                    next[BUCKETS] = running;
+                    cumulative = next;
+                    lastRefresh = System.currentTimeMillis();
+                }
+            }
+        }
+        return cumulative;
+    }
+
+    int bucketOf(double value) {
+        long units = (long) Math.max(0, value * unitsPerValue);
+        if (units < SUB_BUCKETS) {
+            return (int) units;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(units);
+        if (msb > MAX_MSB) {
+            return BUCKETS - 1;
+        }
+        int shift = msb - SUB_BUCKET_BITS;
+        int top = (int) (units >>> shift); // in [32, 63]
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    // ============= CHECKPOINT ENCODING =============
+
+    /** Sparse encoding: (int bucket, long count) pairs for non-empty buckets. */
+    public byte[] toBytes() {
+        long[] copy = new long[BUCKETS];
+        int nonEmpty = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            copy[b] = counts.get(b);
+            if (copy[b] != 0) nonEmpty++;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4 + nonEmpty * 12);
+        buffer.putInt(nonEmpty);
+        for (int b = 0; b < BUCKETS; b++) {
+            if (copy[b] != 0) {
+                buffer.putInt(b).putLong(copy[b]);
+            }
+        }
+        return buffer.array();
+    }
+
+    /** Replaces the current counts with a checkpoint produced by {@link #toBytes()}. */
+    public synchronized void load(byte[] data) {
+        for (int b = 0; b < BUCKETS; b++) {
+            counts.set(b, 0);
+        }
+        total.reset();
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int entries = buffer.getInt();
+        for (int i = 0; i < entries; i++) {
+            int b = buffer.getInt();
+            long c = buffer.getLong();
+            counts.set(b, c);
+            total.add(c);
+        }
+        dirty = true;
+        lastRefresh = 0;
+    }
+}
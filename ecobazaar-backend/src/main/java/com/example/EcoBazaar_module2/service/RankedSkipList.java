@@ -0,0 +1,149 @@
+package com.example.EcoBazaar_module2.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Indexed skip list ordered by score (descending), then user id (ascending).
+ * Every forward pointer carries the number of nodes it skips, so insert, delete
+ * and rank are O(log n) and the first K entries are a walk along level 0.
+ *
+ * Not thread-safe; callers guard it (see {@link LeaderboardService}).
+ */
+class RankedSkipList {
+
+    private static final int MAX_LEVEL = 32;
+    private static final double P = 0.25;
+
+    static final class Node {
+        final long userId;
+        final long score;
+        final Node[] forward;
+        final int[] span;
+
+        Node(long userId, long score, int level) {
+            this.userId = userId;
+            this.score = score;
+            this.forward = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Node header = new Node(-1, 0, MAX_LEVEL);
+    private int level = 1;
+    private int length = 0;
+
+    int size() {
+        return length;
+    }
+
+    // Higher scores first, ties broken by lower user id
+    private static boolean precedes(Node node, long score, long userId) {
+        return node.score > score || (node.score == score && node.userId < userId);
+    }
+
+    void insert(long userId, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+
+        Node x = header;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.forward[i] != null && precedes(x.forward[i], score, userId)) {
+                rank[i] += x.span[i];
+                x = x.forward[i];
+            }
+            update[i] = x;
+        }
+
+        int newLevel = randomLevel();
+        if (newLevel > level) {
+            for (int i = level; i < newLevel; i++) {
+                rank[i] = 0;
+                update[i] = header;
+                update[i].span[i] = length;
+            }
+            level = newLevel;
+        }
+
+        x = new Node(userId, score, newLevel);
+        for (int i = 0; i < newLevel; i++) {
+            x.forward[i] = update[i].forward[i];
+            update[i].forward[i] = x;
+            x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+        for (int i = newLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        length++;
+    }
+
+    boolean delete(long userId, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+
+        Node x = header;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && precedes(x.forward[i], score, userId)) {
+                x = x.forward[i];
+            }
+            update[i] = x;
+        }
+
+        x = x.forward[0];
+        if (x == null || x.score != score || x.userId != userId) {
+            return false;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].forward[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].forward[i] = x.forward[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && header.forward[level - 1] == null) {
+            level--;
+        }
+        length--;
+        return true;
+    }
+
+    /** 1-based rank of the entry, or 0 if it is not present. */
+    int rank(long userId, long score) {
+        int rank = 0;
+        Node x = header;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null
+                    && (precedes(x.forward[i], score, userId)
+                    || (x.forward[i].score == score && x.forward[i].userId == userId))) {
+                rank += x.span[i];
+                x = x.forward[i];
+            }
+            if (x != header && x.userId == userId) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    List<Node> top(int k) {
+        List<Node> result = new ArrayList<>(Math.min(k, length));
+        Node x = header.forward[0];
+        while (x != null && result.size() < k) {
+            result.add(x);
+            x = x.forward[0];
+        }
+        return result;
+    }
+
+    private static int randomLevel() {
+        int lvl = 1;
+        while (lvl < MAX_LEVEL && ThreadLocalRandom.current().nextDouble() < P) {
+            lvl++;
+        }
+        return lvl;
+    }
+}
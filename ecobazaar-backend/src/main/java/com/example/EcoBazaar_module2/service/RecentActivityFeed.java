@@ -0,0 +1,79 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.RecentActivityDTO;
+import com.example.EcoBazaar_module2.model.AuditLog;
+import com.example.EcoBazaar_module2.repository.AuditLogRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-capacity ring of the most recent audit entries with the actor name
+ * already resolved, so the admin activity feed never touches the database.
+ *
+ * Writers claim a sequence number and store into slot (seq mod capacity);
+ * readers walk back from the latest sequence and skip slots that have already
+ * been overwritten or not yet written. No locks on either side.
+ */
+@Component
+public class RecentActivityFeed {
+
+    static final int CAPACITY = 256; // power of two
+    private static final int MASK = CAPACITY - 1;
+
+    private record Slot(long seq, RecentActivityDTO activity) {
+    }
+
+    private final AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicLong next = new AtomicLong();
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<AuditLog> latest = auditLogRepository.findLatestWithActor(PageRequest.of(0, CAPACITY));
+        // Oldest first, so the newest entry ends up at the head
+        for (int i = latest.size() - 1; i >= 0; i--) {
+            publish(toDTO(latest.get(i)));
+        }
+        System.out.println("✓ Recent activity feed warmed with " + latest.size() + " entries");
+    }
+
+    public void publish(RecentActivityDTO activity) {
+        long seq = next.getAndIncrement();
+        slots.set((int) (seq & MASK), new Slot(seq, activity));
+    }
+
+    /** Newest first, at most {@link #CAPACITY} entries. */
+    public List<RecentActivityDTO> latest(int limit) {
+        int wanted = Math.max(0, Math.min(limit, CAPACITY));
+        List<RecentActivityDTO> result = new ArrayList<>(wanted);
+        long head = next.get();
+        for (long seq = head - 1; seq >= 0 && seq >= head - CAPACITY && result.size() < wanted; seq--) {
+            Slot slot = slots.get((int) (seq & MASK));
+            if (slot != null && slot.seq() == seq) {
+                result.add(slot.activity());
+            }
+        }
+        return result;
+    }
+
+    static RecentActivityDTO toDTO(AuditLog log) {
+        return new RecentActivityDTO(
+                log.getActor().getFullName(),
+                log.getAction(),
+                log.getEntityType(),
+                log.getEntityId(),
+                log.getTimestamp(),
+                log.getMetadata()
+        );
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.RevenueBreakdownDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Rolling revenue of one seller in fixed time buckets: one slot per local day
+ * for the last {@link #DAYS} days, and one slot per hour over the same span so
+ * the partial day at a window boundary can be cut at the hour.
+ *
+ * Slots are tagged with the hour/day they hold and are reset lazily when the
+ * ring wraps around, so no timer is needed. All access is synchronized.
+ */
+class RevenueRing {
+
+    static final int DAYS = 32; // covers "last month" plus the boundary day
+    private static final int HOURS = DAYS * 24;
+
+    private final double[] hourRevenue = new double[HOURS];
+    private final long[] hourTag = new long[HOURS];
+    private final double[] dayRevenue = new double[DAYS];
+    private final long[] dayTag = new long[DAYS];
+    private double totalRevenue;
+
+    RevenueRing() {
+        Arrays.fill(hourTag, Long.MIN_VALUE);
+        Arrays.fill(dayTag, Long.MIN_VALUE);
+    }
+
+    /** Adds revenue to the all-time total only (orders older than the ring). */
+    synchronized void addTotal(double revenue) {
+        totalRevenue += revenue;
+    }
+
+    /** Adds revenue at the given time; times outside the ring only count towards the total. */
+    synchronized void add(LocalDateTime at, double revenue, LocalDateTime now) {
+        totalRevenue += revenue;
+
+        long hour = epochHour(at);
+        long currentHour = epochHour(now);
+        if (hour > currentHour || hour <= currentHour - HOURS) return;
+
+        int h = slot(hour, HOURS);
+        if (hourTag[h] != hour) {
+            hourTag[h] = hour;
+            hourRevenue[h] = 0;
+        }
+        hourRevenue[h] += revenue;
+
+        long day = Math.floorDiv(hour, 24);
+        int d = slot(day, DAYS);
+        if (dayTag[d] != day) {
+            dayTag[d] = day;
+            dayRevenue[d] = 0;
+        }
+        dayRevenue[d] += revenue;
+    }
+
+    /**
+     * Today (since local midnight), last 7 days and last month (both measured
+     * back from now at hour resolution), and all-time revenue.
+     */
+    synchronized RevenueBreakdownDTO breakdown(LocalDateTime now) {
+        long currentHour = epochHour(now);
+        long today = Math.floorDiv(currentHour, 24);
+
+        double todayRevenue = day(today);
+        double weekRevenue = since(epochHour(now.minusWeeks(1)), today);
+        double monthRevenue = since(epochHour(now.minusMonths(1)), today);
+
+        return new RevenueBreakdownDTO(todayRevenue, weekRevenue, monthRevenue, totalRevenue);
+    }
+
+    // Revenue after the given hour: the rest of its day from hourly slots, whole days after it
+    private double since(long startHour, long today) {
+        long startDay = Math.floorDiv(startHour, 24);
+        double sum = 0;
+        for (long hour = startHour + 1; hour < (startDay + 1) * 24; hour++) {
+            sum += hour(hour);
+        }
+        for (long day = startDay + 1; day <= today; day++) {
+            sum += day(day);
+        }
+        return sum;
+    }
+
+    private double hour(long hour) {
+        int h = slot(hour, HOURS);
+        return hourTag[h] == hour ? hourRevenue[h] : 0;
+    }
+
+    private double day(long day) {
+        int d = slot(day, DAYS);
+        return dayTag[d] == day ? dayRevenue[d] : 0;
+    }
+
+    private static int slot(long index, int size) {
+        return (int) Math.floorMod(index, (long) size);
+    }
+
+    // Hours since the epoch on the local wall clock, so day boundaries match LocalDate
+    static long epochHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    static LocalDateTime windowStart(LocalDateTime now) {
+        return LocalDate.from(now).minusDays(DAYS - 1).atStartOfDay();
+    }
+}
@@ -4,6 +4,7 @@ package com.example.EcoBazaar_module2.service;
 import com.example.EcoBazaar_module2.model.*;
 import com.example.EcoBazaar_module2.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,7 +23,10 @@ public class ReviewService {
     private UserRepository userRepository;
 
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderHistoryService orderHistoryService;
+
+    @Autowired
+    private OutboxService outboxService;
 
     @Transactional
     public Review addReview(Long userId, Long productId, Integer rating, String comment) {
@@ -37,7 +41,7 @@ public class ReviewService {
         }
 
         // Check if user has purchased this product (verified review)
-        boolean hasPurchased = orderRepository.findByUserId(userId).stream()
+        boolean hasPurchased = orderHistoryService.findByUserId(userId).stream()
                 .anyMatch(order -> order.getItems().stream()
                         .anyMatch(item -> item.getProduct().getId().equals(productId)));
 
@@ -50,12 +54,21 @@ public class ReviewService {
 
         Review saved = reviewRepository.save(review);
 
-        // Update product rating
-        updateProductRating(productId);
+        // Product rating is recomputed asynchronously, see onReviewAdded
+        outboxService.publish("REVIEW", saved.getId(),
+                new OutboxService.ReviewAdded(saved.getId(), productId, userId, rating));
 
         return saved;
     }
 
+    /** Recomputes the product rating from scratch, so a repeated delivery is harmless. */
+    @EventListener
+    public void onReviewAdded(OutboxService.ReviewAdded event) {
+        if (productRepository.existsById(event.productId())) {
+            updateProductRating(event.productId());
+        }
+    }
+
     public List<Review> getProductReviews(Long productId) {
         return reviewRepository.findByProductIdOrderByCreatedAtDesc(productId);
     }
@@ -0,0 +1,83 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.RevenueBreakdownDTO;
+import com.example.EcoBazaar_module2.model.Order;
+import com.example.EcoBazaar_module2.model.OrderItem;
+import com.example.EcoBazaar_module2.repository.ArchivedOrderRepository;
+import com.example.EcoBazaar_module2.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-seller rolling revenue kept in {@link RevenueRing}s, so the revenue
+ * breakdown is a sum over a few dozen slots instead of a scan of every order.
+ * Rings are warmed on startup from the lines of orders whose OrderPlaced event was
+ * delivered, and the remaining orders are added by recordOrder when their events
+ * arrive, so each order is counted once.
+ */
+@Service
+public class SellerRevenueService {
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    private final Map<Long, RevenueRing> rings = new ConcurrentHashMap<>();
+
+    // Before OutboxDispatcher.start, so no event is delivered while the rings are read in
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = RevenueRing.windowStart(now);
+
+        for (Object[] row : orderItemRepository.sumRevenueBySellerBefore(windowStart)) {
+            ring((Long) row[0]).addTotal(((Number) row[1]).doubleValue());
+        }
+        // Archived orders are always older than the window
+        for (Object[] row : archivedOrderRepository.sumRevenueBySeller()) {
+            ring(((Number) row[0]).longValue()).addTotal(((Number) row[1]).doubleValue());
+        }
+        for (Object[] row : orderItemRepository.findSellerRevenueSince(windowStart)) {
+            ring((Long) row[0]).add((LocalDateTime) row[1], ((Number) row[2]).doubleValue(), now);
+        }
+
+        System.out.println("✓ Seller revenue rings ready: " + rings.size() + " sellers");
+    }
+
+    /** Adds a newly placed order's lines to their sellers' rings once it commits. */
+    public void recordOrder(Order order) {
+        Map<Long, Double> revenueBySeller = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            revenueBySeller.merge(item.getProduct().getSeller().getId(),
+                    item.getPriceSnapshot() * item.getQuantity(), Double::sum);
+        }
+        LocalDateTime placedAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+
+        TransactionHooks.afterCommit(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            revenueBySeller.forEach((sellerId, revenue) -> ring(sellerId).add(placedAt, revenue, now));
+        });
+    }
+
+    public RevenueBreakdownDTO getRevenueBreakdown(Long sellerId) {
+        RevenueRing ring = rings.get(sellerId);
+        return ring != null
+                ? ring.breakdown(LocalDateTime.now())
+                : new RevenueBreakdownDTO(0.0, 0.0, 0.0, 0.0);
+    }
+
+    private RevenueRing ring(Long sellerId) {
+        return rings.computeIfAbsent(sellerId, id -> new RevenueRing());
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.EcoBazaar_module2.service;
+
+import com.example.EcoBazaar_module2.dto.TopSellerDTO;
+import com.example.EcoBazaar_module2.model.Order;
+import com.example.EcoBazaar_module2.model.OrderItem;
+import com.example.EcoBazaar_module2.model.User;
+import com.example.EcoBazaar_module2.repository.ArchivedOrderRepository;
+import com.example.EcoBazaar_module2.repository.OrderItemRepository;
+import com.example.EcoBazaar_module2.repository.ProductRepository;
+import com.example.EcoBazaar_module2.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Running per-seller sales (units, revenue) and product carbon (count, sum)
+ * aggregates, plus a bounded set of the {@link #CAPACITY} highest-revenue sellers.
+ *
+ * Revenue only grows, so a seller can only enter the top set by selling more and
+ * the bounded set stays exact. Aggregates are loaded with two grouped queries on
+ * startup (sales only from orders whose OrderPlaced event was delivered; the rest
+ * arrive through recordOrder) and updated after each committed order or product change.
+ */
+@Service
+public class TopSellerService {
+
+    static final int CAPACITY = 100;
+
+    private static final Comparator<SellerAggregate> BY_REVENUE =
+            Comparator.comparingDouble((SellerAggregate s) -> s.revenue).reversed()
+                    .thenComparingLong(s -> s.sellerId);
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Long, SellerAggregate> sellers = new HashMap<>();
+    private final TreeSet<SellerAggregate> top = new TreeSet<>(BY_REVENUE);
+
+    private static class SellerAggregate {
+        final long sellerId;
+        String name;
+        int unitsSold;
+        double revenue;
+        int productCount;
+        double carbonSum;
+
+        SellerAggregate(long sellerId) {
+            this.sellerId = sellerId;
+        }
+
+        TopSellerDTO toDTO() {
+            double avgCarbon = productCount == 0 ? 0.0 : carbonSum / productCount;
+            return new TopSellerDTO(sellerId, name, unitsSold, revenue, avgCarbon);
+        }
+    }
+
+    // Before OutboxDispatcher.start, so no event is delivered while the aggregates are read in
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void load() {
+        for (Object[] row : productRepository.sumCarbonBySeller()) {
+            SellerAggregate seller = seller((Long) row[0]);
+            seller.productCount = ((Number) row[1]).intValue();
+            seller.carbonSum = ((Number) row[2]).doubleValue();
+        }
+        List<Object[]> sales = new ArrayList<>(orderItemRepository.sumSalesBySeller());
+        sales.addAll(archivedOrderRepository.sumSalesBySeller());
+        Set<SellerAggregate> withSales = new HashSet<>();
+        for (Object[] row : sales) {
+            SellerAggregate seller = seller(((Number) row[0]).longValue());
+            seller.unitsSold += ((Number) row[1]).intValue();
+            seller.revenue += ((Number) row[2]).doubleValue();
+            withSales.add(seller);
+        }
+        // Ranked only once totals are final; the TreeSet must not see a key change
+        withSales.forEach(this::offer);
+        for (User user : userRepository.findAllById(sellers.keySet())) {
+            sellers.get(user.getId()).name = user.getFullName();
+        }
+
+        System.out.println("✓ Top sellers ready: " + sellers.size() + " sellers");
+    }
+
+    // ============= UPDATES (applied after commit) =============
+
+    public void recordOrder(Order order) {
+        Map<Long, String> names = new HashMap<>();
+        Map<Long, Integer> units = new HashMap<>();
+        Map<Long, Double> revenue = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            User seller = item.getProduct().getSeller();
+            names.putIfAbsent(seller.getId(), seller.getFullName());
+            units.merge(seller.getId(), item.getQuantity(), Integer::sum);
+            revenue.merge(seller.getId(), item.getPriceSnapshot() * item.getQuantity(), Double::sum);
+        }
+
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                for (Long sellerId : names.keySet()) {
+                    SellerAggregate seller = seller(sellerId);
+                    top.remove(seller);
+                    seller.name = names.get(sellerId);
+                    seller.unitsSold += units.get(sellerId);
+                    seller.revenue += revenue.get(sellerId);
+                    offer(seller);
+                }
+            }
+        });
+    }
+
+    public void productAdded(Long sellerId, double carbon) {
+        productCarbonChanged(sellerId, 1, carbon);
+    }
+
+    public void productCarbonUpdated(Long sellerId, double oldCarbon, double newCarbon) {
+        if (oldCarbon != newCarbon) {
+            productCarbonChanged(sellerId, 0, newCarbon - oldCarbon);
+        }
+    }
+
+    public void productRemoved(Long sellerId, double carbon) {
+        productCarbonChanged(sellerId, -1, -carbon);
+    }
+
+    private void productCarbonChanged(Long sellerId, int countDelta, double carbonDelta) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                SellerAggregate seller = seller(sellerId);
+                seller.productCount += countDelta;
+                seller.carbonSum += carbonDelta;
+            }
+        });
+    }
+
+    /** Shows a changed seller name once the transaction that saved it commits. */
+    public void renameSeller(User user) {
+        Long sellerId = user.getId();
+        String name = user.getFullName();
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                SellerAggregate seller = sellers.get(sellerId);
+                if (seller != null) {
+                    seller.name = name;
+                }
+            }
+        });
+    }
+
+    // ============= QUERIES =============
+
+    /** Highest-revenue sellers, at most {@link #CAPACITY}. */
+    public synchronized List<TopSellerDTO> getTopSellers(int limit) {
+        List<TopSellerDTO> result = new ArrayList<>(Math.max(0, Math.min(limit, top.size())));
+        for (SellerAggregate seller : top) {
+            if (result.size() >= limit) break;
+            result.add(seller.toDTO());
+        }
+        return result;
+    }
+
+    private SellerAggregate seller(Long sellerId) {
+        return sellers.computeIfAbsent(sellerId, SellerAggregate::new);
+    }
+
+    // Caller must have removed the seller from the set before changing its revenue
+    private void offer(SellerAggregate seller) {
+        if (top.size() < CAPACITY) {
+            top.add(seller);
+        } else if (BY_REVENUE.compare(seller, top.last()) < 0) {
+            top.pollLast();
+            top.add(seller);
+        }
+    }
+}
@@ -22,6 +22,12 @@ public class UserService {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private TopSellerService topSellerService;
+
     public User getUserProfile(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -31,7 +37,10 @@ public class UserService {
     public User updateUserProfile(Long userId, String fullName) {
         User user = getUserProfile(userId);
         user.setFullName(fullName);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        leaderboardService.renameUser(saved);
+        topSellerService.renameSeller(saved);
+        return saved;
     }
 
     @Transactional
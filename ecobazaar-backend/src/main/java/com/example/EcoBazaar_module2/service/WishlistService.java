@@ -24,6 +24,9 @@ public class WishlistService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OutboxService outboxService;
+
     public List<Wishlist> getUserWishlist(Long userId) {
         return wishlistRepository.findByUserId(userId);
     }
@@ -44,7 +47,9 @@ public class WishlistService {
         wishlist.setUser(user);
         wishlist.setProduct(product);
 
-        return wishlistRepository.save(wishlist);
+        Wishlist saved = wishlistRepository.save(wishlist);
+        outboxService.publish("WISHLIST", userId, new OutboxService.WishlistChanged(userId, productId, true));
+        return saved;
     }
 
     @Transactional
@@ -52,6 +57,7 @@ public class WishlistService {
         Wishlist item = wishlistRepository.findByUserIdAndProductId(userId, productId)
                 .orElseThrow(() -> new RuntimeException("Item not in wishlist"));
         wishlistRepository.delete(item);
+        outboxService.publish("WISHLIST", userId, new OutboxService.WishlistChanged(userId, productId, false));
     }
 
     public boolean isInWishlist(Long userId, Long productId) {